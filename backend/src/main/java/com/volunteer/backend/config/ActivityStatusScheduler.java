@@ -0,0 +1,50 @@
+package com.volunteer.backend.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.volunteer.backend.service.ActivityStatusEngine;
+
+@Component
+public class ActivityStatusScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(ActivityStatusScheduler.class);
+
+    private final ActivityStatusEngine activityStatusEngine;
+
+    public ActivityStatusScheduler(ActivityStatusEngine activityStatusEngine) {
+        this.activityStatusEngine = activityStatusEngine;
+    }
+
+    // 只检查内存队列的队首，有到点的时刻才访问数据库
+    @Scheduled(fixedDelayString = "${activity.status.tick-millis:1000}")
+    public void tick() {
+        try {
+            int changed = activityStatusEngine.tick();
+            if (changed > 0) {
+                logger.info("活动状态已更新，共 {} 个活动", changed);
+            }
+        } catch (Exception e) {
+            logger.error("更新活动状态时发生错误", e);
+        }
+    }
+
+    // 启动时的加载由 ActivityStatusEngine 自己在 ApplicationReadyEvent 上完成
+    // @formatter:off
+    @Scheduled(
+        fixedDelayString = "${activity.status.reload-minutes:60}",
+        initialDelayString = "${activity.status.reload-minutes:60}",
+        timeUnit = TimeUnit.MINUTES
+    )
+    // @formatter:on
+    public void reload() {
+        try {
+            activityStatusEngine.reload();
+        } catch (Exception e) {
+            logger.error("重新加载待处理的活动状态变化时发生错误", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.volunteer.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.volunteer.backend.service.FlashSignupService;
+
+@Component
+public class FlashSignupScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(FlashSignupScheduler.class);
+
+    private final FlashSignupService flashSignupService;
+
+    public FlashSignupScheduler(FlashSignupService flashSignupService) {
+        this.flashSignupService = flashSignupService;
+    }
+
+    // 队列为空时不访问数据库
+    @Scheduled(fixedDelayString = "${activity.flash.flush-millis:200}")
+    public void flush() {
+        try {
+            flashSignupService.flush();
+        } catch (Exception e) {
+            logger.error("写入抢报报名记录时发生错误", e);
+        }
+    }
+}
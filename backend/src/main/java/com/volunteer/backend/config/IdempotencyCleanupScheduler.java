@@ -0,0 +1,34 @@
+package com.volunteer.backend.config;
+
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.volunteer.backend.service.IdempotencyStore;
+
+@Component
+public class IdempotencyCleanupScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyCleanupScheduler.class);
+
+    private final IdempotencyStore idempotencyStore;
+
+    public IdempotencyCleanupScheduler(IdempotencyStore idempotencyStore) {
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    // 每小时第 30 分钟清理过期的幂等记录
+    @Scheduled(cron = "0 30 * * * ?")
+    @Transactional
+    public void cleanupExpiredRecords() {
+        try {
+            int deleted = idempotencyStore.deleteExpired(LocalDateTime.now());
+            logger.info("过期幂等记录清理完成，共 {} 条", deleted);
+        } catch (Exception e) {
+            logger.error("清理过期幂等记录时发生错误", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.volunteer.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.volunteer.backend.service.LotteryDrawService;
+
+@Component
+public class LotteryDrawScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(LotteryDrawScheduler.class);
+
+    private final LotteryDrawService lotteryDrawService;
+
+    public LotteryDrawScheduler(LotteryDrawService lotteryDrawService) {
+        this.lotteryDrawService = lotteryDrawService;
+    }
+
+    // 抽签时间到了之后最多延迟一个间隔开奖
+    @Scheduled(fixedDelayString = "${activity.lottery.poll-millis:30000}")
+    public void drawDue() {
+        try {
+            lotteryDrawService.drawDue();
+        } catch (Exception e) {
+            logger.error("执行活动抽签时发生错误", e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.volunteer.backend.config;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.metamodel.EntityType;
+
+/**
+ * 启动时检查实体 @Table 上声明的索引和唯一约束在数据库里是否存在
+ * <p>
+ * 按列比较而不是按索引名比较：只要某个实际索引的前几列与声明的列完全一致就算命中。缺失时只打警告，不阻止启动
+ * </p>
+ */
+@Component
+public class SchemaIndexChecker {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaIndexChecker.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+    private final boolean enabled;
+
+    // @formatter:off
+    public SchemaIndexChecker(
+        EntityManagerFactory entityManagerFactory,
+        DataSource dataSource,
+        @Value("${schema.index-check.enabled:true}") boolean enabled
+    ) {
+        // @formatter:on
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkIndexes() {
+        if (!enabled) {
+            return;
+        }
+
+        int missing = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+                Table table = entity.getJavaType().getAnnotation(Table.class);
+                if (table == null || table.name().isEmpty()) {
+                    continue;
+                }
+
+                List<List<String>> actual = loadIndexColumns(connection, metaData, table.name());
+                for (Index index : table.indexes()) {
+                    List<String> expected = parseColumnList(index.columnList());
+                    if (!isCovered(actual, expected)) {
+                        logger.warn("表 {} 缺少索引 {} ({})", table.name(), index.name(), String.join(", ", expected));
+                        missing++;
+                    }
+                }
+                for (UniqueConstraint constraint : table.uniqueConstraints()) {
+                    List<String> expected = Arrays.stream(constraint.columnNames()).map(SchemaIndexChecker::normalize)
+                            .toList();
+                    if (!isCovered(actual, expected)) {
+                        logger.warn("表 {} 缺少唯一约束 {} ({})", table.name(), constraint.name(),
+                                String.join(", ", expected));
+                        missing++;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("检查数据库索引时发生错误", e);
+            return;
+        }
+
+        if (missing > 0) {
+            logger.warn("共有 {} 个声明的索引在数据库中不存在，请检查 db/migration 下的迁移脚本是否已执行", missing);
+        }
+    }
+
+    // 返回表上每个索引按顺序排列的列名
+    private static List<List<String>> loadIndexColumns(Connection connection, DatabaseMetaData metaData,
+            String tableName) throws SQLException {
+        String name = metaData.storesUpperCaseIdentifiers() ? tableName.toUpperCase(Locale.ROOT) : tableName;
+        Map<String, TreeMap<Short, String>> indexes = new HashMap<>();
+        try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), name, false,
+                false)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (indexName == null || column == null
+                        || rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) {
+                    continue;
+                }
+                indexes.computeIfAbsent(indexName, k -> new TreeMap<>()).put(rs.getShort("ORDINAL_POSITION"),
+                        normalize(column));
+            }
+        }
+
+        List<List<String>> result = new ArrayList<>();
+        for (TreeMap<Short, String> columns : indexes.values()) {
+            result.add(new ArrayList<>(columns.values()));
+        }
+        return result;
+    }
+
+    private static boolean isCovered(List<List<String>> actual, List<String> expected) {
+        for (List<String> columns : actual) {
+            if (columns.size() >= expected.size() && columns.subList(0, expected.size()).equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // columnList 形如 "status, start_time DESC"，排序方向不影响是否命中
+    private static List<String> parseColumnList(String columnList) {
+        List<String> columns = new ArrayList<>();
+        for (String part : columnList.split(",")) {
+            String column = part.trim().split("\\s+")[0];
+            if (!column.isEmpty()) {
+                columns.add(normalize(column));
+            }
+        }
+        return columns;
+    }
+
+    private static String normalize(String column) {
+        return column.toLowerCase(Locale.ROOT);
+    }
+}
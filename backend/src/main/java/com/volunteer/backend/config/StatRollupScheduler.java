@@ -0,0 +1,35 @@
+package com.volunteer.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.volunteer.backend.service.StatRollupService;
+
+@Component
+public class StatRollupScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(StatRollupScheduler.class);
+
+    private final StatRollupService statRollupService;
+
+    public StatRollupScheduler(StatRollupService statRollupService) {
+        this.statRollupService = statRollupService;
+    }
+
+    // 每天 2:30 执行，错开 2:00 的 Token 清理
+    @Scheduled(cron = "0 30 2 * * ?")
+    public void rollupRecentDays() {
+        if (!statRollupService.isEnabled()) {
+            return;
+        }
+
+        logger.info("开始汇总最近 {} 天的统计数据", statRollupService.getRefreshDays());
+        try {
+            int days = statRollupService.refreshRecentDays();
+            logger.info("统计数据汇总完成，共 {} 天", days);
+        } catch (Exception e) {
+            logger.error("汇总统计数据时发生错误", e);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -18,14 +19,17 @@ import com.volunteer.backend.dto.response.PageResponse;
 import com.volunteer.backend.dto.response.SignupResponse;
 import com.volunteer.backend.entity.User;
 import com.volunteer.backend.service.ActivityService;
+import com.volunteer.backend.service.IdempotencyStore;
 
 @RestController
 @RequestMapping("/api/activity")
 public class ActivityController {
     private final ActivityService activityService;
+    private final IdempotencyStore idempotencyStore;
 
-    public ActivityController(ActivityService activityService) {
+    public ActivityController(ActivityService activityService, IdempotencyStore idempotencyStore) {
         this.activityService = activityService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     // @formatter:off
@@ -43,20 +47,24 @@ public class ActivityController {
     @PostMapping("/signup")
     public ResponseEntity<SignupResponse> signupActivity(
         @AuthenticationPrincipal User user,
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
         @RequestBody SignupRequest request
     ) {
         // @formatter:on
-        return ResponseEntity.ok(activityService.signupActivity(user.getId(), request));
+        return ResponseEntity.ok(idempotencyStore.signup(user.getId(), IdempotencyStore.ACTIVITY_SIGNUP,
+                idempotencyKey, request, () -> activityService.signupActivity(user.getId(), request)));
     }
 
     // @formatter:off
     @PostMapping("/cancel-signup")
     public ResponseEntity<SignupResponse> cancelSignupActivity(
         @AuthenticationPrincipal User user,
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
         @RequestBody SignupRequest request
     ) {
         // @formatter:on
-        return ResponseEntity.ok(activityService.cancelSignupActivity(user.getId(), request));
+        return ResponseEntity.ok(idempotencyStore.signup(user.getId(), IdempotencyStore.ACTIVITY_CANCEL_SIGNUP,
+                idempotencyKey, request, () -> activityService.cancelSignupActivity(user.getId(), request)));
     }
 
     // @formatter:off
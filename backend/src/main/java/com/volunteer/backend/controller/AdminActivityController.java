@@ -14,21 +14,31 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.volunteer.backend.dto.request.AdminActivityImportRequest;
+import com.volunteer.backend.dto.request.AdminActivitySettleRequest;
 import com.volunteer.backend.dto.request.AdminActivityUpdateRequest;
 import com.volunteer.backend.dto.request.AdminSignupUpdateRequest;
+import com.volunteer.backend.dto.response.AdminActivitySettleResponse;
 import com.volunteer.backend.dto.response.AdminSignupRecordResponse;
 import com.volunteer.backend.entity.Activity;
 import com.volunteer.backend.entity.SignupRecord;
+import com.volunteer.backend.service.ActivitySettlementService;
 import com.volunteer.backend.service.AdminActivityService;
 
 @RestController
 @RequestMapping("/api/admin/activity")
 public class AdminActivityController {
     private final AdminActivityService adminActivityService;
+    private final ActivitySettlementService activitySettlementService;
 
-    public AdminActivityController(AdminActivityService adminActivityService) {
+    // @formatter:off
+    public AdminActivityController(
+        AdminActivityService adminActivityService,
+        ActivitySettlementService activitySettlementService
+    ) {
         this.adminActivityService = adminActivityService;
+        this.activitySettlementService = activitySettlementService;
     }
+    // @formatter:on
 
     // @formatter:off
     @PostMapping("/import")
@@ -40,6 +50,20 @@ public class AdminActivityController {
         return ResponseEntity.status(HttpStatus.CREATED).body(activity);
     }
 
+    // 测试数据脚本直接写库后，需要重建活动搜索索引
+    @PostMapping("/search-index/rebuild")
+    public ResponseEntity<Void> rebuildSearchIndex() {
+        adminActivityService.rebuildSearchIndex();
+        return ResponseEntity.ok().build();
+    }
+
+    // 测试数据脚本直接写库后，需要补做活动状态变化并重新加载待处理的开始 / 结束时刻
+    @PostMapping("/status/reload")
+    public ResponseEntity<Void> reloadActivityStatus() {
+        adminActivityService.reloadActivityStatus();
+        return ResponseEntity.ok().build();
+    }
+
     // @formatter:off
     @PutMapping("/{activityId}")
     public ResponseEntity<Activity> updateActivity(
@@ -82,4 +106,16 @@ public class AdminActivityController {
         SignupRecord record = adminActivityService.updateSignupRecord(activityId, signupId, request);
         return ResponseEntity.ok(record);
     }
+
+    // 不传参与名单时，所有已确认的报名都按参与结算
+    // @formatter:off
+    @PostMapping("/{activityId}/settle")
+    public ResponseEntity<AdminActivitySettleResponse> settleActivity(
+        @PathVariable Long activityId,
+        @RequestBody(required = false) AdminActivitySettleRequest request
+    ) {
+        // @formatter:on
+        AdminActivitySettleResponse response = activitySettlementService.settleActivity(activityId, request);
+        return ResponseEntity.ok(response);
+    }
 }
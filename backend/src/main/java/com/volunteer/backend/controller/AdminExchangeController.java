@@ -29,9 +29,10 @@ public class AdminExchangeController {
     public ResponseEntity<PageResponse<AdminExchangeRecordResponse>> getExchangeRecords(
         @RequestParam(defaultValue = "ALL") String status,
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "8") int size
+        @RequestParam(defaultValue = "8") int size,
+        @RequestParam(required = false) String cursor
     ) {
-        return ResponseEntity.ok(adminExchangeService.getExchangeRecords(status, page, size));
+        return ResponseEntity.ok(adminExchangeService.getExchangeRecords(status, page, size, cursor));
     }
 
     @PostMapping("/{id}/approve")
@@ -32,10 +32,12 @@ public class AdminPointController {
         @RequestParam(defaultValue = "ALL") String type,
         @RequestParam(required = false) String keyword,
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "8") int size
+        @RequestParam(defaultValue = "8") int size,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean slice
     ) {
         // @formatter:on
-        return ResponseEntity.ok(adminPointService.getPointRecords(type, keyword, page, size));
+        return ResponseEntity.ok(adminPointService.getPointRecords(type, keyword, page, size, cursor, slice));
     }
 
     // @formatter:off
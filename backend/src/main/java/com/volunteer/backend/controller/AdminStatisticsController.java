@@ -0,0 +1,69 @@
+package com.volunteer.backend.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.volunteer.backend.dto.response.StatisticsCacheStatsResponse;
+import com.volunteer.backend.entity.KpiAggregate;
+import com.volunteer.backend.service.KpiAggregateService;
+import com.volunteer.backend.service.StatRollupService;
+import com.volunteer.backend.service.StatisticsResponseCache;
+
+@RestController
+@RequestMapping("/api/admin/statistics")
+public class AdminStatisticsController {
+    private final KpiAggregateService kpiAggregateService;
+    private final StatRollupService statRollupService;
+    private final StatisticsResponseCache statisticsResponseCache;
+
+    // @formatter:off
+    public AdminStatisticsController(
+        KpiAggregateService kpiAggregateService,
+        StatRollupService statRollupService,
+        StatisticsResponseCache statisticsResponseCache
+    ) {
+        // @formatter:on
+        this.kpiAggregateService = kpiAggregateService;
+        this.statRollupService = statRollupService;
+        this.statisticsResponseCache = statisticsResponseCache;
+    }
+
+    // 根据明细表全量重建 KPI 汇总，用于对账
+    @PostMapping("/rebuild-kpi")
+    public ResponseEntity<KpiAggregate> rebuildKpi() {
+        KpiAggregate aggregate = kpiAggregateService.rebuild();
+        statisticsResponseCache.invalidateAll();
+        return ResponseEntity.ok(aggregate);
+    }
+
+    // 回填每日统计汇总，可重复执行
+    // @formatter:off
+    @PostMapping("/rollup/backfill")
+    public ResponseEntity<Map<String, String>> backfillRollup(
+        @RequestParam String from,
+        @RequestParam(required = false) String to
+    ) {
+        // @formatter:on
+        int days = statRollupService.backfill(from, to);
+        statisticsResponseCache.invalidateAll();
+        return ResponseEntity.ok(Map.of("message", "已汇总 " + days + " 天的统计数据"));
+    }
+
+    // 公开统计接口的缓存命中情况
+    @GetMapping("/cache-stats")
+    public ResponseEntity<StatisticsCacheStatsResponse> getCacheStats() {
+        return ResponseEntity.ok(statisticsResponseCache.getStats());
+    }
+
+    @PostMapping("/cache/clear")
+    public ResponseEntity<Map<String, String>> clearCache() {
+        statisticsResponseCache.invalidateAll();
+        return ResponseEntity.ok(Map.of("message", "统计缓存已清空"));
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -14,15 +15,18 @@ import com.volunteer.backend.dto.response.ExchangeResponse;
 import com.volunteer.backend.dto.response.PageResponse;
 import com.volunteer.backend.dto.response.ProductResponse;
 import com.volunteer.backend.entity.User;
+import com.volunteer.backend.service.IdempotencyStore;
 import com.volunteer.backend.service.ProductService;
 
 @RestController
 @RequestMapping("/api/product")
 public class ProductController {
     private final ProductService productService;
+    private final IdempotencyStore idempotencyStore;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, IdempotencyStore idempotencyStore) {
         this.productService = productService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     // @formatter:off
@@ -41,9 +45,11 @@ public class ProductController {
     @PostMapping("/exchange")
     public ResponseEntity<ExchangeResponse> exchangeProduct(
         @AuthenticationPrincipal User user,
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
         @RequestBody ExchangeRequest request
     ) {
         // @formatter:on
-        return ResponseEntity.ok(productService.exchangeProduct(user.getId(), request));
+        return ResponseEntity.ok(idempotencyStore.exchange(user.getId(), idempotencyKey, request,
+                () -> productService.exchangeProduct(user.getId(), request)));
     }
 }
@@ -1,5 +1,10 @@
 package com.volunteer.backend.controller;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -10,23 +15,82 @@ import com.volunteer.backend.dto.response.ActivityParticipationBubbleResponse;
 import com.volunteer.backend.dto.response.ActivityTypeTrendResponse;
 import com.volunteer.backend.dto.response.DashboardKPIResponse;
 import com.volunteer.backend.dto.response.PointFlowSankeyResponse;
+import com.volunteer.backend.dto.response.StatisticsDashboardResponse;
 import com.volunteer.backend.dto.response.VolunteerActivityHeatmapResponse;
+import com.volunteer.backend.dto.response.VolunteerCohortRetentionResponse;
 import com.volunteer.backend.dto.response.VolunteerGrowthRadarResponse;
 import com.volunteer.backend.dto.response.VolunteerRetentionResponse;
+import com.volunteer.backend.service.StatisticsResponseCache;
 import com.volunteer.backend.service.StatisticsService;
 
 @RestController
 @RequestMapping("/api/statistics")
 public class StatisticsController {
     private final StatisticsService statisticsService;
+    private final StatisticsResponseCache statisticsResponseCache;
 
-    public StatisticsController(StatisticsService statisticsService) {
+    // @formatter:off
+    public StatisticsController(
+        StatisticsService statisticsService,
+        StatisticsResponseCache statisticsResponseCache
+    ) {
+        // @formatter:on
         this.statisticsService = statisticsService;
+        this.statisticsResponseCache = statisticsResponseCache;
+    }
+
+    // 单个图表接口和 /dashboard 共用同一组缓存 key
+    private DashboardKPIResponse kpi() {
+        return statisticsResponseCache.get("kpi", statisticsService::getDashboardKPI);
+    }
+
+    private VolunteerActivityHeatmapResponse heatmap(Integer year) {
+        return statisticsResponseCache.get("volunteer-activity-heatmap?year=" + year,
+                () -> statisticsService.getVolunteerActivityHeatmap(year));
+    }
+
+    private PointFlowSankeyResponse pointFlow(Integer year) {
+        return statisticsResponseCache.get("point-flow-sankey?year=" + year,
+                () -> statisticsService.getPointFlowSankey(year));
+    }
+
+    private ActivityParticipationBubbleResponse participation(Integer year, Integer limit, Integer minParticipants) {
+        String key = "activity-participation-bubble?year=" + year + "&limit=" + limit + "&minParticipants="
+                + minParticipants;
+        return statisticsResponseCache.get(key,
+                () -> statisticsService.getActivityParticipationBubble(year, limit, minParticipants));
+    }
+
+    private ActivityTypeTrendResponse typeTrend(Integer year) {
+        return statisticsResponseCache.get("activity-type-trend?year=" + year,
+                () -> statisticsService.getActivityTypeTrend(year));
+    }
+
+    private VolunteerRetentionResponse retention(Integer year) {
+        return statisticsResponseCache.get("volunteer-retention?year=" + year,
+                () -> statisticsService.getVolunteerRetention(year));
+    }
+
+    // 任一图表失败时取消其余任务，并把原始异常抛给全局异常处理
+    private <T> T join(Future<T> future, ExecutorService executor) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("统计数据计算失败", e.getCause());
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("统计数据计算被中断", e);
+        }
     }
 
     @GetMapping("/kpi")
     public ResponseEntity<DashboardKPIResponse> getDashboardKPI() {
-        DashboardKPIResponse response = statisticsService.getDashboardKPI();
+        DashboardKPIResponse response = kpi();
         return ResponseEntity.ok(response);
     }
 
@@ -36,7 +100,7 @@ public class StatisticsController {
         @RequestParam(required = false) Integer year
     ) {
         // @formatter:on
-        VolunteerActivityHeatmapResponse response = statisticsService.getVolunteerActivityHeatmap(year);
+        VolunteerActivityHeatmapResponse response = heatmap(year);
         return ResponseEntity.ok(response);
     }
 
@@ -46,17 +110,19 @@ public class StatisticsController {
         @RequestParam(required = false) Integer year
     ) {
         // @formatter:on
-        PointFlowSankeyResponse response = statisticsService.getPointFlowSankey(year);
+        PointFlowSankeyResponse response = pointFlow(year);
         return ResponseEntity.ok(response);
     }
 
     // @formatter:off
     @GetMapping("/activity-participation-bubble")
     public ResponseEntity<ActivityParticipationBubbleResponse> getActivityParticipationBubble(
-        @RequestParam(required = false) Integer year
+        @RequestParam(required = false) Integer year,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) Integer minParticipants
     ) {
         // @formatter:on
-        ActivityParticipationBubbleResponse response = statisticsService.getActivityParticipationBubble(year);
+        ActivityParticipationBubbleResponse response = participation(year, limit, minParticipants);
         return ResponseEntity.ok(response);
     }
 
@@ -66,7 +132,7 @@ public class StatisticsController {
         @RequestParam(required = false) Integer year
     ) {
         // @formatter:on
-        ActivityTypeTrendResponse response = statisticsService.getActivityTypeTrend(year);
+        ActivityTypeTrendResponse response = typeTrend(year);
         return ResponseEntity.ok(response);
     }
 
@@ -76,7 +142,20 @@ public class StatisticsController {
         @RequestParam(required = false) Integer year
     ) {
         // @formatter:on
-        VolunteerRetentionResponse response = statisticsService.getVolunteerRetention(year);
+        VolunteerRetentionResponse response = retention(year);
+        return ResponseEntity.ok(response);
+    }
+
+    // @formatter:off
+    @GetMapping("/volunteer-cohort-retention")
+    public ResponseEntity<VolunteerCohortRetentionResponse> getVolunteerCohortRetention(
+        @RequestParam(required = false) String from,
+        @RequestParam(required = false) String to
+    ) {
+        // @formatter:on
+        VolunteerCohortRetentionResponse response = statisticsResponseCache.get(
+                "volunteer-cohort-retention?from=" + from + "&to=" + to,
+                () -> statisticsService.getVolunteerCohortRetention(from, to));
         return ResponseEntity.ok(response);
     }
 
@@ -86,7 +165,41 @@ public class StatisticsController {
         @RequestParam(required = false) Long volunteerId
     ) {
         // @formatter:on
+        // 雷达图按志愿者单独缓存并在数据变化时失效，不走这里的 TTL 缓存
         VolunteerGrowthRadarResponse response = statisticsService.getVolunteerGrowthRadar(volunteerId);
         return ResponseEntity.ok(response);
     }
+
+    // 看板一次请求拿到全部图表：各图表的聚合查询互不依赖，放到虚拟线程上并行执行
+    // @formatter:off
+    @GetMapping("/dashboard")
+    public ResponseEntity<StatisticsDashboardResponse> getDashboard(
+        @RequestParam(required = false) Integer year,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) Integer minParticipants
+    ) {
+        // @formatter:on
+        StatisticsDashboardResponse response;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<DashboardKPIResponse> kpi = executor.submit(this::kpi);
+            Future<VolunteerActivityHeatmapResponse> heatmap = executor.submit(() -> heatmap(year));
+            Future<PointFlowSankeyResponse> pointFlow = executor.submit(() -> pointFlow(year));
+            Future<ActivityParticipationBubbleResponse> participation = executor
+                    .submit(() -> participation(year, limit, minParticipants));
+            Future<ActivityTypeTrendResponse> typeTrend = executor.submit(() -> typeTrend(year));
+            Future<VolunteerRetentionResponse> retention = executor.submit(() -> retention(year));
+
+            // @formatter:off
+            response = new StatisticsDashboardResponse(
+                join(kpi, executor),
+                join(heatmap, executor),
+                join(pointFlow, executor),
+                join(participation, executor),
+                join(typeTrend, executor),
+                join(retention, executor)
+            );
+            // @formatter:on
+        }
+        return ResponseEntity.ok(response);
+    }
 }
@@ -42,10 +42,11 @@ public class VolunteerController {
     public ResponseEntity<PageResponse<PointChangeRecordResponse>> getPointChangeRecords(
         @PathVariable Long volunteerId,
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "10") int size
+        @RequestParam(defaultValue = "10") int size,
+        @RequestParam(defaultValue = "false") boolean slice
     ) {
         // @formatter:on
-        return ResponseEntity.ok(volunteerService.getPointChangeRecords(volunteerId, page, size));
+        return ResponseEntity.ok(volunteerService.getPointChangeRecords(volunteerId, page, size, slice));
     }
 
     // @formatter:off
@@ -53,10 +54,12 @@ public class VolunteerController {
     public ResponseEntity<PageResponse<SignupRecordResponse>> getSignupRecords(
         @PathVariable Long volunteerId,
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "10") int size
+        @RequestParam(defaultValue = "10") int size,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean slice
     ) {
         // @formatter:on
-        return ResponseEntity.ok(signupRecordService.getPaginatedSignupRecords(volunteerId, page, size));
+        return ResponseEntity.ok(signupRecordService.getPaginatedSignupRecords(volunteerId, page, size, cursor, slice));
     }
 
     @GetMapping("/{volunteerId}/signup-records/all")
@@ -69,10 +72,12 @@ public class VolunteerController {
     public ResponseEntity<PageResponse<ExchangeRecordResponse>> getExchangeRecords(
         @PathVariable Long volunteerId,
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = "10") int size
+        @RequestParam(defaultValue = "10") int size,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean slice
     ) {
         // @formatter:on
-        return ResponseEntity.ok(exchangeRecordService.getExchangeRecords(volunteerId, page, size));
+        return ResponseEntity.ok(exchangeRecordService.getExchangeRecords(volunteerId, page, size, cursor, slice));
     }
 
     // @formatter:off
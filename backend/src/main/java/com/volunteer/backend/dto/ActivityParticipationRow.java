@@ -0,0 +1,22 @@
+package com.volunteer.backend.dto;
+
+import java.time.LocalDateTime;
+
+import com.volunteer.backend.enums.ActivityType;
+
+// 按活动分组后的报名统计（参与人数、服务时长和积分之和）
+public interface ActivityParticipationRow {
+    Long getActivityId();
+
+    String getTitle();
+
+    LocalDateTime getStartTime();
+
+    ActivityType getType();
+
+    Long getParticipantCount();
+
+    Long getTotalHours();
+
+    Double getTotalPoints();
+}
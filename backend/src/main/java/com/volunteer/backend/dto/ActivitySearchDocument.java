@@ -0,0 +1,10 @@
+package com.volunteer.backend.dto;
+
+// 建立活动搜索索引时只取标题和描述
+public interface ActivitySearchDocument {
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+}
@@ -0,0 +1,14 @@
+package com.volunteer.backend.dto;
+
+import java.time.LocalDateTime;
+
+import com.volunteer.backend.enums.ActivityStatus;
+
+// 关键字命中的活动再按类型、状态、日期过滤后的结果，只带排序需要的列
+public interface ActivitySearchHit {
+    Long getId();
+
+    ActivityStatus getStatus();
+
+    LocalDateTime getStartTime();
+}
@@ -0,0 +1,12 @@
+package com.volunteer.backend.dto;
+
+import com.volunteer.backend.enums.SignupStatus;
+
+// 某个活动已有的报名记录，供抢报模式加载和抽签使用
+public interface ActivitySignupRow {
+    Long getId();
+
+    Long getVolunteerId();
+
+    SignupStatus getStatus();
+}
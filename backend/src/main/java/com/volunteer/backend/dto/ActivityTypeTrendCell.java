@@ -0,0 +1,12 @@
+package com.volunteer.backend.dto;
+
+import com.volunteer.backend.enums.ActivityType;
+
+// 某类活动在某月开始的活动数
+public interface ActivityTypeTrendCell {
+    ActivityType getActivityType();
+
+    Integer getMonth();
+
+    Long getActivityCount();
+}
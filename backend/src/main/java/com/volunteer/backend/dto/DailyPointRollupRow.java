@@ -0,0 +1,14 @@
+package com.volunteer.backend.dto;
+
+import com.volunteer.backend.enums.PointChangeType;
+
+// 某一天按变动类型汇总的积分流水
+public interface DailyPointRollupRow {
+    PointChangeType getChangeType();
+
+    Double getPointsEarned();
+
+    Double getPointsSpent();
+
+    Long getDistinctVolunteers();
+}
@@ -0,0 +1,14 @@
+package com.volunteer.backend.dto;
+
+import com.volunteer.backend.enums.ActivityType;
+
+// 某一天按活动类型汇总的报名情况
+public interface DailySignupRollupRow {
+    ActivityType getActivityType();
+
+    Long getSignupCount();
+
+    Long getCompletedHours();
+
+    Long getDistinctVolunteers();
+}
@@ -0,0 +1,49 @@
+package com.volunteer.backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标分页的位置：上一页最后一条记录的 (时间, id)
+ * <p>
+ * 列表按 时间 DESC, id DESC 排序，下一页取 (时间, id) 严格小于游标的记录，查询直接从索引上的这个位置往后读，
+ * 不需要 OFFSET 跳过前面的行，也不需要 COUNT。对外编码成不透明的字符串，前端原样带回即可
+ * </p>
+ */
+public class PageCursor {
+    private final LocalDateTime time;
+    private final Long id;
+
+    public PageCursor(LocalDateTime time, Long id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = time + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 空字符串表示游标模式的第一页，返回 null
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("分页游标无效");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.volunteer.backend.dto;
+
+import com.volunteer.backend.enums.PointChangeType;
+
+// 按变动类型汇总的积分：pointsEarned 为正向变动之和，pointsSpent 为负向变动的绝对值之和
+public interface PointFlowRow {
+    PointChangeType getChangeType();
+
+    Double getPointsEarned();
+
+    Double getPointsSpent();
+}
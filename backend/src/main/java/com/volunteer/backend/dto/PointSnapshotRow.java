@@ -0,0 +1,16 @@
+package com.volunteer.backend.dto;
+
+import java.time.LocalDateTime;
+
+import com.volunteer.backend.enums.PointChangeType;
+
+// 加载分析快照时每条积分流水只取需要的列
+public interface PointSnapshotRow {
+    Long getId();
+
+    PointChangeType getChangeType();
+
+    Double getChangePoints();
+
+    LocalDateTime getChangeTime();
+}
@@ -0,0 +1,10 @@
+package com.volunteer.backend.dto;
+
+// 热力图的一个格子：月份（1 ~ 12）× 星期（0 表示周一）的报名次数
+public interface SignupHeatmapCell {
+    Integer getMonth();
+
+    Integer getWeekday();
+
+    Long getSignupCount();
+}
@@ -0,0 +1,12 @@
+package com.volunteer.backend.dto;
+
+import java.time.LocalDateTime;
+
+// 加载分析快照时每条报名记录只取需要的列
+public interface SignupSnapshotRow {
+    Long getId();
+
+    Long getVolunteerId();
+
+    LocalDateTime getSignupTime();
+}
@@ -0,0 +1,10 @@
+package com.volunteer.backend.dto;
+
+import com.volunteer.backend.enums.SignupStatus;
+
+// 志愿者报名状态缓存只需要活动 id 和报名状态
+public interface SignupStatusRow {
+    Long getActivityId();
+
+    SignupStatus getStatus();
+}
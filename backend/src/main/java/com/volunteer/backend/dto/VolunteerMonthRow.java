@@ -0,0 +1,8 @@
+package com.volunteer.backend.dto;
+
+// 志愿者在某个月份有过报名（去重后的一行）
+public interface VolunteerMonthRow {
+    Long getVolunteerId();
+
+    Integer getMonthIndex();
+}
@@ -8,6 +8,10 @@ public class ActivityQueryRequest {
     private String status = "ALL";
     private String date;
     private String sort = "time";
+    // 不为 null 时走游标分页（空字符串表示第一页），只支持按时间排序
+    private String cursor;
+    // 为 true 时只返回是否有下一页，总数取后台缓存的近似值
+    private boolean slice;
 
     public ActivityQueryRequest() {
     }
@@ -68,4 +72,20 @@ public class ActivityQueryRequest {
         this.sort = sort;
     }
 
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isSlice() {
+        return slice;
+    }
+
+    public void setSlice(boolean slice) {
+        this.slice = slice;
+    }
+
 }
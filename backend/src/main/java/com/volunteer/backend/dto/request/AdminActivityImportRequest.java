@@ -15,6 +15,9 @@ public class AdminActivityImportRequest {
     private ActivityStatus status;
     private Double pointsPerHour;
     private Integer maxParticipants;
+    private Boolean flashMode;
+    private Boolean lotteryMode;
+    private LocalDateTime lotteryDrawTime;
 
     public AdminActivityImportRequest() {
     }
@@ -90,4 +93,28 @@ public class AdminActivityImportRequest {
     public void setMaxParticipants(Integer maxParticipants) {
         this.maxParticipants = maxParticipants;
     }
+
+    public Boolean getFlashMode() {
+        return flashMode;
+    }
+
+    public void setFlashMode(Boolean flashMode) {
+        this.flashMode = flashMode;
+    }
+
+    public Boolean getLotteryMode() {
+        return lotteryMode;
+    }
+
+    public void setLotteryMode(Boolean lotteryMode) {
+        this.lotteryMode = lotteryMode;
+    }
+
+    public LocalDateTime getLotteryDrawTime() {
+        return lotteryDrawTime;
+    }
+
+    public void setLotteryDrawTime(LocalDateTime lotteryDrawTime) {
+        this.lotteryDrawTime = lotteryDrawTime;
+    }
 }
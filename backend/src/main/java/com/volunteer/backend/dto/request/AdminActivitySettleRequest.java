@@ -0,0 +1,16 @@
+package com.volunteer.backend.dto.request;
+
+import java.util.List;
+
+public class AdminActivitySettleRequest {
+    // 实际参与的报名；为空时结算所有已确认 / 已参与的报名
+    private List<AdminSettleParticipantRequest> participants;
+
+    public List<AdminSettleParticipantRequest> getParticipants() {
+        return participants;
+    }
+
+    public void setParticipants(List<AdminSettleParticipantRequest> participants) {
+        this.participants = participants;
+    }
+}
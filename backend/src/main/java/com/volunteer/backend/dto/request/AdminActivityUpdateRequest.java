@@ -20,6 +20,12 @@ public class AdminActivityUpdateRequest {
 
     private Double pointsPerHour;
     private Integer maxParticipants;
+    private Boolean flashMode;
+    private Boolean lotteryMode;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime lotteryDrawTime;
+
     private ActivityStatus status;
 
     public String getTitle() {
@@ -93,4 +99,28 @@ public class AdminActivityUpdateRequest {
     public void setStatus(ActivityStatus status) {
         this.status = status;
     }
+
+    public Boolean getFlashMode() {
+        return flashMode;
+    }
+
+    public void setFlashMode(Boolean flashMode) {
+        this.flashMode = flashMode;
+    }
+
+    public Boolean getLotteryMode() {
+        return lotteryMode;
+    }
+
+    public void setLotteryMode(Boolean lotteryMode) {
+        this.lotteryMode = lotteryMode;
+    }
+
+    public LocalDateTime getLotteryDrawTime() {
+        return lotteryDrawTime;
+    }
+
+    public void setLotteryDrawTime(LocalDateTime lotteryDrawTime) {
+        this.lotteryDrawTime = lotteryDrawTime;
+    }
 }
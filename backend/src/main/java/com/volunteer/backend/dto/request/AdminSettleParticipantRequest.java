@@ -0,0 +1,22 @@
+package com.volunteer.backend.dto.request;
+
+public class AdminSettleParticipantRequest {
+    private Long signupId;
+    private Integer actualHours; // 为空时按志愿者填写的起止时间计算
+
+    public Long getSignupId() {
+        return signupId;
+    }
+
+    public void setSignupId(Long signupId) {
+        this.signupId = signupId;
+    }
+
+    public Integer getActualHours() {
+        return actualHours;
+    }
+
+    public void setActualHours(Integer actualHours) {
+        this.actualHours = actualHours;
+    }
+}
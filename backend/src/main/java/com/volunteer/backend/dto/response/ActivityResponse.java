@@ -99,4 +99,24 @@ public class ActivityResponse {
     public void setSignupStatus(SignupStatus signupStatus) {
         this.signupStatus = signupStatus;
     }
+
+    // 列表页缓存中的响应是共享的，叠加报名状态时复制一份
+    public ActivityResponse withSignupStatus(SignupStatus signupStatus) {
+        // @formatter:off
+        return new ActivityResponse(
+            id,
+            title,
+            description,
+            type,
+            location,
+            startTime,
+            endTime,
+            status,
+            pointsPerHour,
+            maxParticipants,
+            curParticipants,
+            signupStatus
+        );
+        // @formatter:on
+    }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.volunteer.backend.dto.response;
+
+public class AdminActivitySettleResponse {
+    private Long activityId;
+    private Integer participatedCount;
+    private Integer unarrivedCount;
+    private Integer totalHours;
+    private Double totalPoints;
+
+    public AdminActivitySettleResponse() {
+    }
+
+    // @formatter:off
+    public AdminActivitySettleResponse(
+        Long activityId,
+        Integer participatedCount,
+        Integer unarrivedCount,
+        Integer totalHours,
+        Double totalPoints
+    ) {
+        // @formatter:on
+        this.activityId = activityId;
+        this.participatedCount = participatedCount;
+        this.unarrivedCount = unarrivedCount;
+        this.totalHours = totalHours;
+        this.totalPoints = totalPoints;
+    }
+
+    public Long getActivityId() {
+        return activityId;
+    }
+
+    public void setActivityId(Long activityId) {
+        this.activityId = activityId;
+    }
+
+    public Integer getParticipatedCount() {
+        return participatedCount;
+    }
+
+    public void setParticipatedCount(Integer participatedCount) {
+        this.participatedCount = participatedCount;
+    }
+
+    public Integer getUnarrivedCount() {
+        return unarrivedCount;
+    }
+
+    public void setUnarrivedCount(Integer unarrivedCount) {
+        this.unarrivedCount = unarrivedCount;
+    }
+
+    public Integer getTotalHours() {
+        return totalHours;
+    }
+
+    public void setTotalHours(Integer totalHours) {
+        this.totalHours = totalHours;
+    }
+
+    public Double getTotalPoints() {
+        return totalPoints;
+    }
+
+    public void setTotalPoints(Double totalPoints) {
+        this.totalPoints = totalPoints;
+    }
+}
@@ -8,6 +8,9 @@ public class PageResponse<T> {
     private int pageSize; // 这里指每页展示多少条记录
     private long totalElements;
     private int totalPages;
+    private boolean hasNext;
+    // 游标模式下的下一页游标，没有更多数据时为 null；页码模式下始终为 null
+    private String nextCursor;
 
     // @formatter:off
     public PageResponse(
@@ -23,6 +26,28 @@ public class PageResponse<T> {
         this.pageSize = pageSize;
         this.totalElements = totalElements;
         this.totalPages = totalPages;
+        this.hasNext = curPage + 1 < totalPages;
+    }
+
+    // 游标模式不做 COUNT，totalElements 和 totalPages 置为 -1
+    public PageResponse(List<T> content, int pageSize, String nextCursor) {
+        this(content, 0, pageSize, -1, -1);
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+
+    // Slice 模式只查一次，是否有下一页由多取的一条决定；总数是后台缓存的近似值，还没统计出来时为 -1
+    public PageResponse(List<T> content, int curPage, int pageSize, boolean hasNext, Long approximateTotal) {
+        // @formatter:off
+        this(
+            content,
+            curPage,
+            pageSize,
+            approximateTotal != null ? approximateTotal : -1,
+            approximateTotal != null ? (int) ((approximateTotal + pageSize - 1) / pageSize) : -1
+        );
+        // @formatter:on
+        this.hasNext = hasNext;
     }
 
     public List<T> getContent() {
@@ -64,4 +89,20 @@ public class PageResponse<T> {
     public void setTotalPages(int totalPages) {
         this.totalPages = totalPages;
     }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -13,6 +13,7 @@ public class SignupRecordResponse {
     private Integer actualHours;
     private Double points;
     private String note;
+    private Long waitlistPosition; // 候补中的记录在队列里排第几位，其余为 null
 
     public SignupRecordResponse() {
     }
@@ -142,4 +143,12 @@ public class SignupRecordResponse {
     public void setNote(String note) {
         this.note = note;
     }
+
+    public Long getWaitlistPosition() {
+        return waitlistPosition;
+    }
+
+    public void setWaitlistPosition(Long waitlistPosition) {
+        this.waitlistPosition = waitlistPosition;
+    }
 }
\ No newline at end of file
@@ -1,8 +1,9 @@
 package com.volunteer.backend.dto.response;
 
 public class SignupResponse {
-    private Long id; // 报名记录 ID
+    private Long id; // 报名记录 ID（抢报模式下尚未写入的新报名为负数的临时编号）
     private String message;
+    private Long waitlistPosition; // 报满后进入候补时排在第几位，直接报上名为 null
 
     public SignupResponse() {
     }
@@ -27,4 +28,12 @@ public class SignupResponse {
     public void setMessage(String message) {
         this.message = message;
     }
+
+    public Long getWaitlistPosition() {
+        return waitlistPosition;
+    }
+
+    public void setWaitlistPosition(Long waitlistPosition) {
+        this.waitlistPosition = waitlistPosition;
+    }
 }
\ No newline at end of file
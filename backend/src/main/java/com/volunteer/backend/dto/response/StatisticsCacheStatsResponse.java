@@ -0,0 +1,79 @@
+package com.volunteer.backend.dto.response;
+
+public class StatisticsCacheStatsResponse {
+    private Long hits;
+    private Long staleHits;
+    private Long misses;
+    private Long coalescedRequests;
+    private Long loadFailures;
+    private Integer size;
+
+    public StatisticsCacheStatsResponse() {
+    }
+
+    // @formatter:off
+    public StatisticsCacheStatsResponse(
+        Long hits,
+        Long staleHits,
+        Long misses,
+        Long coalescedRequests,
+        Long loadFailures,
+        Integer size
+    ) {
+        // @formatter:on
+        this.hits = hits;
+        this.staleHits = staleHits;
+        this.misses = misses;
+        this.coalescedRequests = coalescedRequests;
+        this.loadFailures = loadFailures;
+        this.size = size;
+    }
+
+    public Long getHits() {
+        return hits;
+    }
+
+    public void setHits(Long hits) {
+        this.hits = hits;
+    }
+
+    public Long getStaleHits() {
+        return staleHits;
+    }
+
+    public void setStaleHits(Long staleHits) {
+        this.staleHits = staleHits;
+    }
+
+    public Long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(Long misses) {
+        this.misses = misses;
+    }
+
+    public Long getCoalescedRequests() {
+        return coalescedRequests;
+    }
+
+    public void setCoalescedRequests(Long coalescedRequests) {
+        this.coalescedRequests = coalescedRequests;
+    }
+
+    public Long getLoadFailures() {
+        return loadFailures;
+    }
+
+    public void setLoadFailures(Long loadFailures) {
+        this.loadFailures = loadFailures;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,80 @@
+package com.volunteer.backend.dto.response;
+
+// 数据看板一次性返回的全部图表
+public class StatisticsDashboardResponse {
+    private DashboardKPIResponse kpi;
+    private VolunteerActivityHeatmapResponse heatmap;
+    private PointFlowSankeyResponse pointFlow;
+    private ActivityParticipationBubbleResponse participation;
+    private ActivityTypeTrendResponse typeTrend;
+    private VolunteerRetentionResponse retention;
+
+    public StatisticsDashboardResponse() {
+    }
+
+    // @formatter:off
+    public StatisticsDashboardResponse(
+        DashboardKPIResponse kpi,
+        VolunteerActivityHeatmapResponse heatmap,
+        PointFlowSankeyResponse pointFlow,
+        ActivityParticipationBubbleResponse participation,
+        ActivityTypeTrendResponse typeTrend,
+        VolunteerRetentionResponse retention
+    ) {
+        // @formatter:on
+        this.kpi = kpi;
+        this.heatmap = heatmap;
+        this.pointFlow = pointFlow;
+        this.participation = participation;
+        this.typeTrend = typeTrend;
+        this.retention = retention;
+    }
+
+    public DashboardKPIResponse getKpi() {
+        return kpi;
+    }
+
+    public void setKpi(DashboardKPIResponse kpi) {
+        this.kpi = kpi;
+    }
+
+    public VolunteerActivityHeatmapResponse getHeatmap() {
+        return heatmap;
+    }
+
+    public void setHeatmap(VolunteerActivityHeatmapResponse heatmap) {
+        this.heatmap = heatmap;
+    }
+
+    public PointFlowSankeyResponse getPointFlow() {
+        return pointFlow;
+    }
+
+    public void setPointFlow(PointFlowSankeyResponse pointFlow) {
+        this.pointFlow = pointFlow;
+    }
+
+    public ActivityParticipationBubbleResponse getParticipation() {
+        return participation;
+    }
+
+    public void setParticipation(ActivityParticipationBubbleResponse participation) {
+        this.participation = participation;
+    }
+
+    public ActivityTypeTrendResponse getTypeTrend() {
+        return typeTrend;
+    }
+
+    public void setTypeTrend(ActivityTypeTrendResponse typeTrend) {
+        this.typeTrend = typeTrend;
+    }
+
+    public VolunteerRetentionResponse getRetention() {
+        return retention;
+    }
+
+    public void setRetention(VolunteerRetentionResponse retention) {
+        this.retention = retention;
+    }
+}
@@ -0,0 +1,59 @@
+package com.volunteer.backend.dto.response;
+
+import java.util.List;
+
+public class VolunteerCohortRetentionResponse {
+    private List<String> cohorts; // 首次参与月份，例如 2024-03
+    private List<Integer> cohortSizes;
+    private List<List<Integer>> retainedVolunteers; // 第 i 个 cohort 在首次参与后第 j 个月仍活跃的人数
+    private List<List<Double>> retentionRates;
+
+    public VolunteerCohortRetentionResponse() {
+    }
+
+    // @formatter:off
+    public VolunteerCohortRetentionResponse(
+        List<String> cohorts,
+        List<Integer> cohortSizes,
+        List<List<Integer>> retainedVolunteers,
+        List<List<Double>> retentionRates
+    ) {
+        // @formatter:on
+        this.cohorts = cohorts;
+        this.cohortSizes = cohortSizes;
+        this.retainedVolunteers = retainedVolunteers;
+        this.retentionRates = retentionRates;
+    }
+
+    public List<String> getCohorts() {
+        return cohorts;
+    }
+
+    public void setCohorts(List<String> cohorts) {
+        this.cohorts = cohorts;
+    }
+
+    public List<Integer> getCohortSizes() {
+        return cohortSizes;
+    }
+
+    public void setCohortSizes(List<Integer> cohortSizes) {
+        this.cohortSizes = cohortSizes;
+    }
+
+    public List<List<Integer>> getRetainedVolunteers() {
+        return retainedVolunteers;
+    }
+
+    public void setRetainedVolunteers(List<List<Integer>> retainedVolunteers) {
+        this.retainedVolunteers = retainedVolunteers;
+    }
+
+    public List<List<Double>> getRetentionRates() {
+        return retentionRates;
+    }
+
+    public void setRetentionRates(List<List<Double>> retentionRates) {
+        this.retentionRates = retentionRates;
+    }
+}
@@ -6,6 +6,8 @@ package com.volunteer.backend.entity;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 import com.volunteer.backend.enums.ActivityStatus;
 import com.volunteer.backend.enums.ActivityType;
 
@@ -21,9 +23,15 @@ import jakarta.persistence.Table;
 @Entity
 // @formatter:off
 @Table(name = "activity", indexes = {
-    @jakarta.persistence.Index(name = "idx_activity_start_time", columnList = "start_time")
+    @jakarta.persistence.Index(name = "idx_activity_start_time", columnList = "start_time"),
+    @jakarta.persistence.Index(name = "idx_activity_status_start_time", columnList = "status, start_time"),
+    @jakarta.persistence.Index(name = "idx_activity_status_end_time", columnList = "status, end_time"),
+    @jakarta.persistence.Index(name = "idx_activity_type_start_time", columnList = "type, start_time"),
+    @jakarta.persistence.Index(name = "idx_activity_lottery_draw_time", columnList = "lottery_draw_time")
 })
 // @formatter:on
+// 状态由 ActivityStatusEngine 批量 UPDATE，只写改动过的列，避免保存报名人数时把状态覆盖回旧值
+@DynamicUpdate
 public class Activity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -63,9 +71,29 @@ public class Activity {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createTime;
 
+    // 抢报模式：名额在内存中分配，报名记录由 FlashSignupService 批量写入
+    @Column(nullable = false)
+    private Boolean flashMode;
+
+    // 候补序号发号器，每加入一个候补加一，见 ActivityWaitlist
+    @Column(nullable = false)
+    private Long waitlistSeq;
+
+    // 抽签模式：截止前报名不检查名额，到 lotteryDrawTime 由 LotteryDrawService 统一抽签
+    @Column(nullable = false)
+    private Boolean lotteryMode;
+
+    private LocalDateTime lotteryDrawTime;
+
+    // 抽签用的随机种子，抽签后写入，用同一个种子可以复现抽签结果；为 null 表示还没有抽签
+    private Long lotterySeed;
+
     public Activity() {
         this.curParticipants = 0;
         this.createTime = LocalDateTime.now();
+        this.flashMode = false;
+        this.waitlistSeq = 0L;
+        this.lotteryMode = false;
     }
 
     // @formatter:off
@@ -185,4 +213,44 @@ public class Activity {
     public void setCreateTime(LocalDateTime createTime) {
         this.createTime = createTime;
     }
+
+    public Boolean getFlashMode() {
+        return flashMode;
+    }
+
+    public void setFlashMode(Boolean flashMode) {
+        this.flashMode = flashMode;
+    }
+
+    public Long getWaitlistSeq() {
+        return waitlistSeq;
+    }
+
+    public void setWaitlistSeq(Long waitlistSeq) {
+        this.waitlistSeq = waitlistSeq;
+    }
+
+    public Boolean getLotteryMode() {
+        return lotteryMode;
+    }
+
+    public void setLotteryMode(Boolean lotteryMode) {
+        this.lotteryMode = lotteryMode;
+    }
+
+    public LocalDateTime getLotteryDrawTime() {
+        return lotteryDrawTime;
+    }
+
+    public void setLotteryDrawTime(LocalDateTime lotteryDrawTime) {
+        this.lotteryDrawTime = lotteryDrawTime;
+    }
+
+    public Long getLotterySeed() {
+        return lotterySeed;
+    }
+
+    public void setLotterySeed(Long lotterySeed) {
+        this.lotterySeed = lotterySeed;
+    }
 }
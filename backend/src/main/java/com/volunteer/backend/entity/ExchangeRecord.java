@@ -11,10 +11,16 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "exchange_record")
+// @formatter:off
+@Table(name = "exchange_record", indexes = {
+    @Index(name = "idx_exchange_record_volunteer_order_time", columnList = "volunteer_id, order_time"),
+    @Index(name = "idx_exchange_record_status_order_time", columnList = "status, order_time")
+})
+// @formatter:on
 public class ExchangeRecord {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,138 @@
+package com.volunteer.backend.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+// 带 Idempotency-Key 的写请求第一次成功时的响应，重复的请求直接返回这里记录的结果
+@Entity
+// @formatter:off
+@Table(name = "idempotency_record", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_idempotency_record_user_endpoint_key", columnNames = { "user_id", "endpoint", "idempotency_key" })
+}, indexes = {
+    @Index(name = "idx_idempotency_record_expire_time", columnList = "expire_time")
+})
+// @formatter:on
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 32)
+    private String endpoint;
+
+    @Column(nullable = false, length = 64)
+    private String idempotencyKey;
+
+    // 请求体的 SHA-256，同一个 key 换了请求内容时拒绝
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    // 响应里的记录 ID（报名记录或兑换记录）
+    private Long resultId;
+
+    @Column(length = 200)
+    private String message;
+
+    private Long waitlistPosition;
+
+    @Column(nullable = false)
+    private LocalDateTime createTime;
+
+    @Column(nullable = false)
+    private LocalDateTime expireTime;
+
+    public IdempotencyRecord() {
+        this.createTime = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public Long getResultId() {
+        return resultId;
+    }
+
+    public void setResultId(Long resultId) {
+        this.resultId = resultId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Long getWaitlistPosition() {
+        return waitlistPosition;
+    }
+
+    public void setWaitlistPosition(Long waitlistPosition) {
+        this.waitlistPosition = waitlistPosition;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(LocalDateTime createTime) {
+        this.createTime = createTime;
+    }
+
+    public LocalDateTime getExpireTime() {
+        return expireTime;
+    }
+
+    public void setExpireTime(LocalDateTime expireTime) {
+        this.expireTime = expireTime;
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * 数据看板 KPI 汇总
+ * <p>
+ * 整张表只有一行（id 固定为 1），在写入报名记录、活动状态和积分流水的同一事务中增量更新，
+ * 看板读取时无需再扫描明细表
+ * </p>
+ */
+
+package com.volunteer.backend.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "stat_kpi_aggregate")
+public class KpiAggregate {
+    public static final Long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    // 所有报名记录的实际服务时长之和
+    @Column(nullable = false)
+    private Long totalServiceHours;
+
+    // 状态为 COMPLETED 的活动数
+    @Column(nullable = false)
+    private Integer completedActivities;
+
+    // 以下三项只累计正向积分变动
+    @Column(nullable = false)
+    private Double activityEarnPoints;
+
+    @Column(nullable = false)
+    private Double systemBonusPoints;
+
+    @Column(nullable = false)
+    private Double adminAdjustPoints;
+
+    // 最近一次全量重建的时间
+    private LocalDateTime rebuildTime;
+
+    public KpiAggregate() {
+        this.id = SINGLETON_ID;
+        this.totalServiceHours = 0L;
+        this.completedActivities = 0;
+        this.activityEarnPoints = 0.0;
+        this.systemBonusPoints = 0.0;
+        this.adminAdjustPoints = 0.0;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTotalServiceHours() {
+        return totalServiceHours;
+    }
+
+    public void setTotalServiceHours(Long totalServiceHours) {
+        this.totalServiceHours = totalServiceHours;
+    }
+
+    public Integer getCompletedActivities() {
+        return completedActivities;
+    }
+
+    public void setCompletedActivities(Integer completedActivities) {
+        this.completedActivities = completedActivities;
+    }
+
+    public Double getActivityEarnPoints() {
+        return activityEarnPoints;
+    }
+
+    public void setActivityEarnPoints(Double activityEarnPoints) {
+        this.activityEarnPoints = activityEarnPoints;
+    }
+
+    public Double getSystemBonusPoints() {
+        return systemBonusPoints;
+    }
+
+    public void setSystemBonusPoints(Double systemBonusPoints) {
+        this.systemBonusPoints = systemBonusPoints;
+    }
+
+    public Double getAdminAdjustPoints() {
+        return adminAdjustPoints;
+    }
+
+    public void setAdminAdjustPoints(Double adminAdjustPoints) {
+        this.adminAdjustPoints = adminAdjustPoints;
+    }
+
+    public LocalDateTime getRebuildTime() {
+        return rebuildTime;
+    }
+
+    public void setRebuildTime(LocalDateTime rebuildTime) {
+        this.rebuildTime = rebuildTime;
+    }
+
+    public Double getTotalPointsReleased() {
+        return activityEarnPoints + systemBonusPoints + adminAdjustPoints;
+    }
+}
@@ -16,10 +16,17 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "point_change_record")
+// @formatter:off
+@Table(name = "point_change_record", indexes = {
+    @Index(name = "idx_point_change_record_volunteer_time", columnList = "volunteer_id, change_time"),
+    @Index(name = "idx_point_change_record_type_time", columnList = "change_type, change_time"),
+    @Index(name = "idx_point_change_record_change_time", columnList = "change_time")
+})
+// @formatter:on
 public class PointChangeRecord {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -15,10 +15,21 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name = "signup_record")
+// @formatter:off
+@Table(name = "signup_record", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_signup_record_volunteer_activity", columnNames = { "volunteer_id", "activity_id" })
+}, indexes = {
+    @Index(name = "idx_signup_record_signup_time", columnList = "signup_time"),
+    @Index(name = "idx_signup_record_volunteer_signup_time", columnList = "volunteer_id, signup_time"),
+    @Index(name = "idx_signup_record_activity_signup_time", columnList = "activity_id, signup_time"),
+    @Index(name = "idx_signup_record_activity_status_waitlist", columnList = "activity_id, status, waitlist_position")
+})
+// @formatter:on
 public class SignupRecord {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -52,6 +63,9 @@ public class SignupRecord {
 
     private LocalDateTime updateTime;
 
+    // 候补序号，只有 WAITLISTED 状态的记录有值，越小越靠前
+    private Long waitlistPosition;
+
     // 备注
     @Column(length = 200)
     private String note;
@@ -156,6 +170,14 @@ public class SignupRecord {
         this.updateTime = updateTime;
     }
 
+    public Long getWaitlistPosition() {
+        return waitlistPosition;
+    }
+
+    public void setWaitlistPosition(Long waitlistPosition) {
+        this.waitlistPosition = waitlistPosition;
+    }
+
     public String getNote() {
         return note;
     }
@@ -0,0 +1,180 @@
+/**
+ * 每日统计汇总
+ * <p>
+ * 每天每个（活动类型, 积分变动类型）一行：
+ * </p>
+ * <ol>
+ * <li>activityType 非空、changeType 为空：当天该类活动的报名数、服务时长、报名人数，以及当天开始的该类活动数</li>
+ * <li>activityType 为空、changeType 非空：当天该类积分变动的发放、消耗和涉及人数</li>
+ * <li>两者都为空：当天合计，同时标记这一天已经汇总过</li>
+ * </ol>
+ */
+
+package com.volunteer.backend.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.volunteer.backend.enums.ActivityType;
+import com.volunteer.backend.enums.PointChangeType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+@Entity
+// @formatter:off
+@Table(name = "stat_daily_rollup", indexes = {
+    @Index(name = "idx_stat_daily_rollup_date", columnList = "stat_date, activity_type, change_type")
+})
+// @formatter:on
+public class StatDailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate statDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 30)
+    private ActivityType activityType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private PointChangeType changeType;
+
+    @Column(nullable = false)
+    private Long signupCount;
+
+    // 当天开始的活动数
+    @Column(nullable = false)
+    private Long activityCount;
+
+    @Column(nullable = false)
+    private Long completedHours;
+
+    @Column(nullable = false)
+    private Double pointsEarned;
+
+    @Column(nullable = false)
+    private Double pointsSpent;
+
+    // 当天去重后的志愿者人数，不同天之间不能直接相加
+    @Column(nullable = false)
+    private Long distinctVolunteers;
+
+    @Column(nullable = false)
+    private LocalDateTime rollupTime;
+
+    public StatDailyRollup() {
+        this.signupCount = 0L;
+        this.activityCount = 0L;
+        this.completedHours = 0L;
+        this.pointsEarned = 0.0;
+        this.pointsSpent = 0.0;
+        this.distinctVolunteers = 0L;
+        this.rollupTime = LocalDateTime.now();
+    }
+
+    public StatDailyRollup(LocalDate statDate, ActivityType activityType, PointChangeType changeType) {
+        this();
+        this.statDate = statDate;
+        this.activityType = activityType;
+        this.changeType = changeType;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public void setStatDate(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+
+    public ActivityType getActivityType() {
+        return activityType;
+    }
+
+    public void setActivityType(ActivityType activityType) {
+        this.activityType = activityType;
+    }
+
+    public PointChangeType getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(PointChangeType changeType) {
+        this.changeType = changeType;
+    }
+
+    public Long getSignupCount() {
+        return signupCount;
+    }
+
+    public void setSignupCount(Long signupCount) {
+        this.signupCount = signupCount;
+    }
+
+    public Long getActivityCount() {
+        return activityCount;
+    }
+
+    public void setActivityCount(Long activityCount) {
+        this.activityCount = activityCount;
+    }
+
+    public Long getCompletedHours() {
+        return completedHours;
+    }
+
+    public void setCompletedHours(Long completedHours) {
+        this.completedHours = completedHours;
+    }
+
+    public Double getPointsEarned() {
+        return pointsEarned;
+    }
+
+    public void setPointsEarned(Double pointsEarned) {
+        this.pointsEarned = pointsEarned;
+    }
+
+    public Double getPointsSpent() {
+        return pointsSpent;
+    }
+
+    public void setPointsSpent(Double pointsSpent) {
+        this.pointsSpent = pointsSpent;
+    }
+
+    public Long getDistinctVolunteers() {
+        return distinctVolunteers;
+    }
+
+    public void setDistinctVolunteers(Long distinctVolunteers) {
+        this.distinctVolunteers = distinctVolunteers;
+    }
+
+    public LocalDateTime getRollupTime() {
+        return rollupTime;
+    }
+
+    public void setRollupTime(LocalDateTime rollupTime) {
+        this.rollupTime = rollupTime;
+    }
+}
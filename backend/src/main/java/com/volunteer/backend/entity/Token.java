@@ -7,11 +7,19 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name = "token", uniqueConstraints = @UniqueConstraint(columnNames = "token"))
+// @formatter:off
+@Table(name = "token", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_token_token", columnNames = "token")
+}, indexes = {
+    @Index(name = "idx_token_user_id", columnList = "user_id"),
+    @Index(name = "idx_token_expire_time", columnList = "expire_time")
+})
+// @formatter:on
 public class Token {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
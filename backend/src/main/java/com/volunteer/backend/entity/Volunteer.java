@@ -18,6 +18,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 
@@ -26,7 +27,11 @@ import jakarta.persistence.UniqueConstraint;
 @Table(
     name = "volunteer",
     uniqueConstraints = {
-        @UniqueConstraint(columnNames = { "name", "phone" })
+        @UniqueConstraint(name = "uk_volunteer_name_phone", columnNames = { "name", "phone" })
+    },
+    indexes = {
+        @Index(name = "idx_volunteer_user_deleted", columnList = "user_id, deleted"),
+        @Index(name = "idx_volunteer_deleted_status", columnList = "deleted, status")
     }
 )
 // @formatter:on
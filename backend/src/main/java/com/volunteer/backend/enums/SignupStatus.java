@@ -6,5 +6,6 @@ public enum SignupStatus {
     PARTICIPATED, // 已参与
     CANCELLED, // 已取消
     REJECTED, // 已拒绝
-    UNARRIVED // 未到场
+    UNARRIVED, // 未到场
+    WAITLISTED // 候补中
 }
@@ -1,55 +1,206 @@
 package com.volunteer.backend.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.volunteer.backend.dto.ActivitySearchDocument;
+import com.volunteer.backend.dto.ActivitySearchHit;
+import com.volunteer.backend.dto.ActivityTypeTrendCell;
 import com.volunteer.backend.entity.Activity;
 import com.volunteer.backend.enums.ActivityStatus;
 import com.volunteer.backend.enums.ActivityType;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface ActivityRepository extends JpaRepository<Activity, Long> {
-    // 这里要用 CONCAT，是因为直接写 %:keyword% 会变成字面量字符串，无法参数绑定
+    // 日期条件用 [dayStart, dayEnd) 区间表示，不对 start_time 套函数，才能走 (status, start_time) 等复合索引
     @Query("SELECT a FROM Activity a WHERE "
-            + "(:keyword IS NULL OR :keyword = '' OR LOWER(a.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(a" +
-            ".description) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND "
             + "(:type IS NULL OR a.type = :type) AND " + "(:status IS NULL OR a.status = :status) AND "
-            + "(:date IS NULL OR :date = '' OR FUNCTION('DATE_FORMAT', a.startTime, '%Y-%m-%d') = :date)")
+            + "(:dayStart IS NULL OR (a.startTime >= :dayStart AND a.startTime < :dayEnd))")
     // @formatter:off
     Page<Activity> findActivities(
-        @Param("keyword") String keyword,
         @Param("type") ActivityType type,
         @Param("status") ActivityStatus status,
-        @Param("date") String date,
+        @Param("dayStart") LocalDateTime dayStart,
+        @Param("dayEnd") LocalDateTime dayEnd,
         Pageable pageable
     );
     // @formatter:on
 
     @Query("SELECT a FROM Activity a WHERE "
-            + "(:keyword IS NULL OR :keyword = '' OR LOWER(a.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(a" +
-            ".description) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND "
             + "(:type IS NULL OR a.type = :type) AND " + "(:status IS NULL OR a.status = :status) AND "
-            + "(:date IS NULL OR :date = '' OR FUNCTION('DATE_FORMAT', a.startTime, '%Y-%m-%d') = :date) "
+            + "(:dayStart IS NULL OR (a.startTime >= :dayStart AND a.startTime < :dayEnd)) "
             + "ORDER BY CASE a.status " + "  WHEN 'RECRUITING' THEN 0 " + "  WHEN 'CONFIRMED' THEN 0 "
             + "  WHEN 'ONGOING' THEN 1 " + "  WHEN 'COMPLETED' THEN 2 " + "  WHEN 'CANCELLED' THEN 2 "
             + "  ELSE 3 END, a.startTime DESC")
     // @formatter:off
     Page<Activity> findActivitiesByStatusOrder(
-        @Param("keyword") String keyword,
         @Param("type") ActivityType type,
         @Param("status") ActivityStatus status,
-        @Param("date") String date,
+        @Param("dayStart") LocalDateTime dayStart,
+        @Param("dayEnd") LocalDateTime dayEnd,
+        Pageable pageable
+    );
+    // @formatter:on
+
+    // 以下两个是 findActivities / findActivitiesByStatusOrder 的 Slice 版本，只多取一条判断是否有下一页，不执行 COUNT
+    @Query("SELECT a FROM Activity a WHERE "
+            + "(:type IS NULL OR a.type = :type) AND " + "(:status IS NULL OR a.status = :status) AND "
+            + "(:dayStart IS NULL OR (a.startTime >= :dayStart AND a.startTime < :dayEnd))")
+    // @formatter:off
+    Slice<Activity> sliceActivities(
+        @Param("type") ActivityType type,
+        @Param("status") ActivityStatus status,
+        @Param("dayStart") LocalDateTime dayStart,
+        @Param("dayEnd") LocalDateTime dayEnd,
+        Pageable pageable
+    );
+    // @formatter:on
+
+    @Query("SELECT a FROM Activity a WHERE "
+            + "(:type IS NULL OR a.type = :type) AND " + "(:status IS NULL OR a.status = :status) AND "
+            + "(:dayStart IS NULL OR (a.startTime >= :dayStart AND a.startTime < :dayEnd)) "
+            + "ORDER BY CASE a.status " + "  WHEN 'RECRUITING' THEN 0 " + "  WHEN 'CONFIRMED' THEN 0 "
+            + "  WHEN 'ONGOING' THEN 1 " + "  WHEN 'COMPLETED' THEN 2 " + "  WHEN 'CANCELLED' THEN 2 "
+            + "  ELSE 3 END, a.startTime DESC")
+    // @formatter:off
+    Slice<Activity> sliceActivitiesByStatusOrder(
+        @Param("type") ActivityType type,
+        @Param("status") ActivityStatus status,
+        @Param("dayStart") LocalDateTime dayStart,
+        @Param("dayEnd") LocalDateTime dayEnd,
         Pageable pageable
     );
     // @formatter:on
 
-    @Query("SELECT a FROM Activity a WHERE " + "a.status IN ('RECRUITING', 'CONFIRMED') AND " + "a.maxParticipants > 0 "
-            + "ORDER BY (a.curParticipants * 1.0 / a.maxParticipants) DESC, a.startTime ASC")
-    List<Activity> findHotActivities(Pageable pageable);
+    // 游标分页：按 startTime DESC, id DESC 取严格位于游标之后的活动，afterTime 为 null 时从第一条开始
+    @Query("SELECT a FROM Activity a WHERE "
+            + "(:type IS NULL OR a.type = :type) AND " + "(:status IS NULL OR a.status = :status) AND "
+            + "(:dayStart IS NULL OR (a.startTime >= :dayStart AND a.startTime < :dayEnd)) AND "
+            + "(:afterTime IS NULL OR a.startTime < :afterTime OR (a.startTime = :afterTime AND a.id < :afterId)) "
+            + "ORDER BY a.startTime DESC, a.id DESC")
+    // @formatter:off
+    List<Activity> seekActivities(
+        @Param("type") ActivityType type,
+        @Param("status") ActivityStatus status,
+        @Param("dayStart") LocalDateTime dayStart,
+        @Param("dayEnd") LocalDateTime dayEnd,
+        @Param("afterTime") LocalDateTime afterTime,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    // @formatter:on
+
+    long countByStatus(ActivityStatus status);
+
+    @Query("SELECT a.id AS id, a.title AS title, a.description AS description FROM Activity a")
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<ActivitySearchDocument> streamSearchDocuments();
+
+    // 关键字已由搜索索引匹配，这里只按其余条件过滤
+    @Query("SELECT a.id AS id, a.status AS status, a.startTime AS startTime FROM Activity a WHERE a.id IN :ids AND "
+            + "(:type IS NULL OR a.type = :type) AND " + "(:status IS NULL OR a.status = :status) AND "
+            + "(:dayStart IS NULL OR (a.startTime >= :dayStart AND a.startTime < :dayEnd))")
+    // @formatter:off
+    List<ActivitySearchHit> filterSearchHits(
+        @Param("ids") List<Long> ids,
+        @Param("type") ActivityType type,
+        @Param("status") ActivityStatus status,
+        @Param("dayStart") LocalDateTime dayStart,
+        @Param("dayEnd") LocalDateTime dayEnd
+    );
+    // @formatter:on
+
+    // 按活动类型 × 开始月份统计活动数
+    @Query("SELECT a.type AS activityType, MONTH(a.startTime) AS month, COUNT(a) AS activityCount FROM Activity a "
+            + "WHERE a.startTime >= :start AND a.startTime < :end GROUP BY a.type, MONTH(a.startTime)")
+    // @formatter:off
+    List<ActivityTypeTrendCell> aggregateTypeTrendBetween(
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+    // @formatter:on
+
+    @Query("SELECT a.type AS activityType, MONTH(a.startTime) AS month, COUNT(a) AS activityCount FROM Activity a "
+            + "WHERE a.startTime IS NOT NULL GROUP BY a.type, MONTH(a.startTime)")
+    List<ActivityTypeTrendCell> aggregateTypeTrend();
+
+    // 报名占用一个名额，人数已满时更新 0 行；maxParticipants 为空表示不限人数
+    @Modifying
+    @Query("UPDATE Activity a SET a.curParticipants = a.curParticipants + 1 WHERE a.id = :activityId "
+            + "AND (a.maxParticipants IS NULL OR a.curParticipants < a.maxParticipants)")
+    int reserveSeat(@Param("activityId") Long activityId);
+
+    @Modifying
+    @Query("UPDATE Activity a SET a.curParticipants = a.curParticipants - 1 "
+            + "WHERE a.id = :activityId AND a.curParticipants > 0")
+    int releaseSeat(@Param("activityId") Long activityId);
+
+    // 候补发号：先加一再读回，UPDATE 持有的行锁保证同一活动的序号不重复
+    @Modifying
+    @Query("UPDATE Activity a SET a.waitlistSeq = a.waitlistSeq + 1 WHERE a.id = :activityId")
+    int advanceWaitlistSeq(@Param("activityId") Long activityId);
+
+    @Query("SELECT a.waitlistSeq FROM Activity a WHERE a.id = :activityId")
+    Long findWaitlistSeq(@Param("activityId") Long activityId);
+
+    // 到了抽签时间还没有抽签的活动
+    @Query("SELECT a.id FROM Activity a WHERE a.lotteryMode = true AND a.lotterySeed IS NULL "
+            + "AND a.lotteryDrawTime <= :now")
+    List<Long> findDueLotteryIds(@Param("now") LocalDateTime now);
+
+    // 抽签前的报名和取消用共享锁读种子，抽签写种子的 UPDATE 要等这些事务提交
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT a.lotterySeed FROM Activity a WHERE a.id = :activityId")
+    Long findLotterySeedForShare(@Param("activityId") Long activityId);
+
+    // 写入种子即认领这次抽签，更新 0 行说明已经抽过
+    @Modifying
+    @Query("UPDATE Activity a SET a.lotterySeed = :seed WHERE a.id = :activityId AND a.lotteryMode = true "
+            + "AND a.lotterySeed IS NULL")
+    int claimLotteryDraw(@Param("activityId") Long activityId, @Param("seed") Long seed);
+
+    @Modifying
+    @Query("UPDATE Activity a SET a.curParticipants = :count WHERE a.id = :activityId")
+    int updateCurParticipants(@Param("activityId") Long activityId, @Param("count") int count);
+
+    // 热门活动的候选集合，排序由 HotActivityRanking 在内存中维护
+    @Query("SELECT a FROM Activity a WHERE a.status IN ('RECRUITING', 'CONFIRMED') AND a.maxParticipants > 0")
+    List<Activity> findHotCandidates();
+
+    // 以下供 ActivityStatusEngine 使用，与原来读取时计算状态的规则一致：结束时间之后为已完成，开始时间起为进行中
+    @Modifying
+    @Query("UPDATE Activity a SET a.status = 'COMPLETED' "
+            + "WHERE a.status IN ('RECRUITING', 'CONFIRMED', 'ONGOING') AND a.endTime < :now")
+    int completeEndedActivities(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Activity a SET a.status = 'ONGOING' "
+            + "WHERE a.status IN ('RECRUITING', 'CONFIRMED') AND a.startTime <= :now AND a.endTime >= :now")
+    int startDueActivities(@Param("now") LocalDateTime now);
+
+    @Query("SELECT a.startTime FROM Activity a "
+            + "WHERE a.status IN ('RECRUITING', 'CONFIRMED') AND a.startTime > :now AND a.startTime < :until")
+    List<LocalDateTime> findPendingStartTimes(@Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Query("SELECT a.endTime FROM Activity a "
+            + "WHERE a.status IN ('RECRUITING', 'CONFIRMED', 'ONGOING') AND a.endTime >= :now AND a.endTime < :until")
+    List<LocalDateTime> findPendingEndTimes(@Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
 }
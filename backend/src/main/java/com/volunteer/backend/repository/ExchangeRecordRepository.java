@@ -1,8 +1,15 @@
 package com.volunteer.backend.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.volunteer.backend.entity.ExchangeRecord;
@@ -15,4 +22,33 @@ public interface ExchangeRecordRepository extends JpaRepository<ExchangeRecord,
     Page<ExchangeRecord> findByVolunteerIdAndStatusNotOrderByOrderTimeDesc(Long volunteerId, ExchangeStatus status, Pageable pageable);
 
     Page<ExchangeRecord> findByStatus(ExchangeStatus status, Pageable pageable);
+
+    // Slice 版本只多取一条判断是否有下一页，不执行 COUNT
+    Slice<ExchangeRecord> findSliceByVolunteerIdAndStatusNotOrderByOrderTimeDesc(Long volunteerId, ExchangeStatus status, Pageable pageable);
+
+    // 游标分页：取 (orderTime, id) 严格小于游标的记录，afterTime 为 null 时从第一条开始
+    @Query("SELECT e FROM ExchangeRecord e WHERE (:status IS NULL OR e.status = :status) AND "
+            + "(:afterTime IS NULL OR e.orderTime < :afterTime OR (e.orderTime = :afterTime AND e.id < :afterId)) "
+            + "ORDER BY e.orderTime DESC, e.id DESC")
+    // @formatter:off
+    List<ExchangeRecord> seekByStatus(
+        @Param("status") ExchangeStatus status,
+        @Param("afterTime") LocalDateTime afterTime,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    // @formatter:on
+
+    @Query("SELECT e FROM ExchangeRecord e WHERE e.volunteerId = :volunteerId AND e.status <> :excluded AND "
+            + "(:afterTime IS NULL OR e.orderTime < :afterTime OR (e.orderTime = :afterTime AND e.id < :afterId)) "
+            + "ORDER BY e.orderTime DESC, e.id DESC")
+    // @formatter:off
+    List<ExchangeRecord> seekByVolunteerIdAndStatusNot(
+        @Param("volunteerId") Long volunteerId,
+        @Param("excluded") ExchangeStatus excluded,
+        @Param("afterTime") LocalDateTime afterTime,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    // @formatter:on
 }
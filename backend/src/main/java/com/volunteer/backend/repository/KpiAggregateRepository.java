@@ -0,0 +1,33 @@
+package com.volunteer.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.volunteer.backend.entity.KpiAggregate;
+
+@Repository
+public interface KpiAggregateRepository extends JpaRepository<KpiAggregate, Long> {
+    @Modifying
+    @Query("UPDATE KpiAggregate k SET k.totalServiceHours = k.totalServiceHours + :delta WHERE k.id = :id")
+    int addServiceHours(@Param("id") Long id, @Param("delta") Long delta);
+
+    @Modifying
+    @Query("UPDATE KpiAggregate k SET k.completedActivities = k.completedActivities + :delta WHERE k.id = :id")
+    int addCompletedActivities(@Param("id") Long id, @Param("delta") Integer delta);
+
+    @Modifying
+    @Query("UPDATE KpiAggregate k SET k.activityEarnPoints = k.activityEarnPoints + :earn, "
+            + "k.systemBonusPoints = k.systemBonusPoints + :bonus, "
+            + "k.adminAdjustPoints = k.adminAdjustPoints + :adjust WHERE k.id = :id")
+    // @formatter:off
+    int addReleasedPoints(
+        @Param("id") Long id,
+        @Param("earn") Double earn,
+        @Param("bonus") Double bonus,
+        @Param("adjust") Double adjust
+    );
+    // @formatter:on
+}
@@ -1,19 +1,35 @@
 package com.volunteer.backend.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.volunteer.backend.dto.DailyPointRollupRow;
+import com.volunteer.backend.dto.PointFlowRow;
+import com.volunteer.backend.dto.PointSnapshotRow;
 import com.volunteer.backend.entity.PointChangeRecord;
 import com.volunteer.backend.enums.PointChangeType;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface PointChangeRecordRepository extends JpaRepository<PointChangeRecord, Long> {
     Page<PointChangeRecord> findByVolunteerIdOrderByChangeTimeDesc(Long volunteerId, Pageable pageable);
 
+    // Slice 版本只多取一条判断是否有下一页，不执行 COUNT
+    Slice<PointChangeRecord> findSliceByVolunteerIdOrderByChangeTimeDesc(Long volunteerId, Pageable pageable);
+
     Page<PointChangeRecord> findAllByOrderByChangeTimeDesc(Pageable pageable);
 
     Page<PointChangeRecord> findByChangeTypeOrderByChangeTimeDesc(PointChangeType changeType, Pageable pageable);
@@ -36,4 +52,70 @@ public interface PointChangeRecordRepository extends JpaRepository<PointChangeRe
         Pageable pageable
     );
     // @formatter:on
+
+    @Query("SELECT p FROM PointChangeRecord p WHERE (:changeType IS NULL OR p.changeType = :changeType) AND "
+            + "(:keyword IS NULL OR p.volunteerId IN (SELECT v.id FROM Volunteer v WHERE v.name LIKE "
+            + "CONCAT('%', :keyword, '%'))) ORDER BY p.changeTime DESC")
+    // @formatter:off
+    Slice<PointChangeRecord> sliceRecords(
+        @Param("changeType") PointChangeType changeType,
+        @Param("keyword") String keyword,
+        Pageable pageable
+    );
+    // @formatter:on
+
+    // 游标分页：取 (changeTime, id) 严格小于游标的记录，afterTime 为 null 时从第一条开始
+    @Query("SELECT p FROM PointChangeRecord p WHERE (:changeType IS NULL OR p.changeType = :changeType) AND "
+            + "(:keyword IS NULL OR p.volunteerId IN (SELECT v.id FROM Volunteer v WHERE v.name LIKE "
+            + "CONCAT('%', :keyword, '%'))) AND (:afterTime IS NULL OR p.changeTime < :afterTime OR "
+            + "(p.changeTime = :afterTime AND p.id < :afterId)) ORDER BY p.changeTime DESC, p.id DESC")
+    // @formatter:off
+    List<PointChangeRecord> seekRecords(
+        @Param("changeType") PointChangeType changeType,
+        @Param("keyword") String keyword,
+        @Param("afterTime") LocalDateTime afterTime,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    // @formatter:on
+
+    @Query("SELECT COALESCE(SUM(p.changePoints), 0) FROM PointChangeRecord p WHERE p.changeType = :changeType"
+            + " AND p.changePoints > 0")
+    Double sumPositivePointsByChangeType(@Param("changeType") PointChangeType changeType);
+
+    // 按变动类型分别汇总正向和负向积分
+    @Query("SELECT p.changeType AS changeType, "
+            + "COALESCE(SUM(CASE WHEN p.changePoints > 0 THEN p.changePoints ELSE 0 END), 0) AS pointsEarned, "
+            + "COALESCE(SUM(CASE WHEN p.changePoints < 0 THEN -p.changePoints ELSE 0 END), 0) AS pointsSpent "
+            + "FROM PointChangeRecord p WHERE p.changeTime >= :start AND p.changeTime < :end GROUP BY p.changeType")
+    List<PointFlowRow> aggregatePointFlowBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT p.changeType AS changeType, "
+            + "COALESCE(SUM(CASE WHEN p.changePoints > 0 THEN p.changePoints ELSE 0 END), 0) AS pointsEarned, "
+            + "COALESCE(SUM(CASE WHEN p.changePoints < 0 THEN -p.changePoints ELSE 0 END), 0) AS pointsSpent "
+            + "FROM PointChangeRecord p WHERE p.changeTime IS NOT NULL GROUP BY p.changeType")
+    List<PointFlowRow> aggregatePointFlow();
+
+    // 每日汇总用：在 aggregatePointFlowBetween 的基础上再统计涉及的志愿者人数
+    @Query("SELECT p.changeType AS changeType, "
+            + "COALESCE(SUM(CASE WHEN p.changePoints > 0 THEN p.changePoints ELSE 0 END), 0) AS pointsEarned, "
+            + "COALESCE(SUM(CASE WHEN p.changePoints < 0 THEN -p.changePoints ELSE 0 END), 0) AS pointsSpent, "
+            + "COUNT(DISTINCT p.volunteerId) AS distinctVolunteers "
+            + "FROM PointChangeRecord p WHERE p.changeTime >= :start AND p.changeTime < :end GROUP BY p.changeType")
+    // @formatter:off
+    List<DailyPointRollupRow> aggregatePointsByChangeTypeBetween(
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+    // @formatter:on
+
+    @Query("SELECT COUNT(DISTINCT p.volunteerId) FROM PointChangeRecord p "
+            + "WHERE p.changeTime >= :start AND p.changeTime < :end")
+    Long countDistinctVolunteersBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT p.id AS id, p.changeType AS changeType, p.changePoints AS changePoints, p.changeTime AS changeTime "
+            + "FROM PointChangeRecord p WHERE p.changeTime IS NOT NULL AND p.changePoints IS NOT NULL")
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<PointSnapshotRow> streamSnapshotRows();
 }
@@ -1,18 +1,36 @@
 package com.volunteer.backend.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.volunteer.backend.dto.ActivityParticipationRow;
+import com.volunteer.backend.dto.ActivitySignupRow;
+import com.volunteer.backend.dto.DailySignupRollupRow;
+import com.volunteer.backend.dto.SignupHeatmapCell;
+import com.volunteer.backend.dto.SignupSnapshotRow;
+import com.volunteer.backend.dto.SignupStatusRow;
+import com.volunteer.backend.dto.VolunteerMonthRow;
 import com.volunteer.backend.entity.SignupRecord;
 import com.volunteer.backend.enums.SignupStatus;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface SignupRecordRepository extends JpaRepository<SignupRecord, Long> {
     Page<SignupRecord> findByVolunteerIdOrderBySignupTimeDesc(Long volunteerId, Pageable pageable);
@@ -25,32 +43,197 @@ public interface SignupRecordRepository extends JpaRepository<SignupRecord, Long
     );
     // @formatter:on
 
+    // Slice 版本只多取一条判断是否有下一页，不执行 COUNT
+    // @formatter:off
+    Slice<SignupRecord> findSliceByVolunteerIdAndStatusNotOrderBySignupTimeDesc(
+        Long volunteerId,
+        SignupStatus status,
+        Pageable pageable
+    );
+    // @formatter:on
+
+    // 游标分页：取 (signupTime, id) 严格小于游标的记录，afterTime 为 null 时从第一条开始
+    @Query("SELECT s FROM SignupRecord s WHERE s.volunteerId = :volunteerId AND s.status <> :excluded AND "
+            + "(:afterTime IS NULL OR s.signupTime < :afterTime OR (s.signupTime = :afterTime AND s.id < :afterId)) "
+            + "ORDER BY s.signupTime DESC, s.id DESC")
+    // @formatter:off
+    List<SignupRecord> seekByVolunteerIdAndStatusNot(
+        @Param("volunteerId") Long volunteerId,
+        @Param("excluded") SignupStatus excluded,
+        @Param("afterTime") LocalDateTime afterTime,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    // @formatter:on
+
     List<SignupRecord> findByVolunteerId(Long volunteerId);
 
     List<SignupRecord> findByVolunteerIdAndStatusNot(Long volunteerId, SignupStatus status);
 
     List<SignupRecord> findByActivityIdOrderBySignupTimeDesc(Long activityId);
 
+    @Query("SELECT DISTINCT s.volunteerId FROM SignupRecord s WHERE s.activityId = :activityId")
+    List<Long> findVolunteerIdsByActivityId(@Param("activityId") Long activityId);
+
     @Query("SELECT COALESCE(SUM(s.actualHours), 0) FROM SignupRecord s WHERE s.volunteerId = :volunteerId")
     Integer sumHoursByVolunteerId(@Param("volunteerId") Long volunteerId);
 
-    Optional<SignupRecord> findByVolunteerIdAndActivityId(Long volunteerId, Long activityId);
+    @Query("SELECT COALESCE(SUM(s.actualHours), 0) FROM SignupRecord s")
+    Long sumAllHours();
+
+    @Query("SELECT COALESCE(SUM(s.actualHours), 0) FROM SignupRecord s WHERE s.activityId = :activityId")
+    Long sumHoursByActivityId(@Param("activityId") Long activityId);
 
-    @Query("SELECT s FROM SignupRecord s WHERE s.volunteerId = :volunteerId AND s.activityId IN :activityIds")
+    // 近期活跃志愿者：在 since 之后报名且已记录服务时长
+    @Query("SELECT COUNT(DISTINCT s.volunteerId) FROM SignupRecord s WHERE s.actualHours > 0 AND s.signupTime > :since")
+    Long countActiveVolunteersSince(@Param("since") LocalDateTime since);
+
+    // 每日汇总用：按活动类型统计区间内的报名数、服务时长和报名人数
+    @Query("SELECT a.type AS activityType, COUNT(s) AS signupCount, COALESCE(SUM(s.actualHours), 0) AS completedHours, "
+            + "COUNT(DISTINCT s.volunteerId) AS distinctVolunteers "
+            + "FROM SignupRecord s JOIN Activity a ON a.id = s.activityId "
+            + "WHERE s.signupTime >= :start AND s.signupTime < :end GROUP BY a.type")
     // @formatter:off
-    List<SignupRecord> findByVolunteerIdAndActivityIds(
-        @Param("volunteerId") Long volunteerId,
-        @Param("activityIds") List<Long> activityIds
+    List<DailySignupRollupRow> aggregateSignupsByTypeBetween(
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+    // @formatter:on
+
+    @Query("SELECT COUNT(DISTINCT s.volunteerId) FROM SignupRecord s WHERE s.signupTime >= :start AND s.signupTime < :end")
+    Long countDistinctVolunteersBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // 按月份 × 星期聚合报名次数，WEEKDAY 返回 0（周一）~ 6（周日）
+    // 年份用 signup_time 的区间条件过滤，而不是对列套 YEAR()，这样才能走 signup_time 索引
+    @Query("SELECT MONTH(s.signupTime) AS month, FUNCTION('WEEKDAY', s.signupTime) AS weekday, COUNT(s) AS signupCount "
+            + "FROM SignupRecord s WHERE s.signupTime >= :start AND s.signupTime < :end "
+            + "GROUP BY MONTH(s.signupTime), FUNCTION('WEEKDAY', s.signupTime)")
+    // @formatter:off
+    List<SignupHeatmapCell> aggregateHeatmapBetween(
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+    // @formatter:on
+
+    @Query("SELECT MONTH(s.signupTime) AS month, FUNCTION('WEEKDAY', s.signupTime) AS weekday, COUNT(s) AS signupCount "
+            + "FROM SignupRecord s WHERE s.signupTime IS NOT NULL "
+            + "GROUP BY MONTH(s.signupTime), FUNCTION('WEEKDAY', s.signupTime)")
+    List<SignupHeatmapCell> aggregateHeatmap();
+
+    // 每个活动一行，只保留参与人数不少于 minParticipants 的活动，按人数从多到少排序，配合 pageable 截取前 N 个
+    @Query("SELECT a.id AS activityId, a.title AS title, a.startTime AS startTime, a.type AS type, "
+            + "COUNT(s) AS participantCount, COALESCE(SUM(s.actualHours), 0) AS totalHours, "
+            + "COALESCE(SUM(s.points), 0.0) AS totalPoints "
+            + "FROM SignupRecord s JOIN Activity a ON a.id = s.activityId "
+            + "WHERE a.startTime >= :start AND a.startTime < :end "
+            + "GROUP BY a.id, a.title, a.startTime, a.type HAVING COUNT(s) >= :minParticipants "
+            + "ORDER BY COUNT(s) DESC, a.startTime ASC")
+    // @formatter:off
+    List<ActivityParticipationRow> aggregateParticipationBetween(
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("minParticipants") Long minParticipants,
+        Pageable pageable
+    );
+    // @formatter:on
+
+    @Query("SELECT a.id AS activityId, a.title AS title, a.startTime AS startTime, a.type AS type, "
+            + "COUNT(s) AS participantCount, COALESCE(SUM(s.actualHours), 0) AS totalHours, "
+            + "COALESCE(SUM(s.points), 0.0) AS totalPoints "
+            + "FROM SignupRecord s JOIN Activity a ON a.id = s.activityId "
+            + "GROUP BY a.id, a.title, a.startTime, a.type HAVING COUNT(s) >= :minParticipants "
+            + "ORDER BY COUNT(s) DESC, a.startTime ASC")
+    // @formatter:off
+    List<ActivityParticipationRow> aggregateParticipation(
+        @Param("minParticipants") Long minParticipants,
+        Pageable pageable
     );
     // @formatter:on
 
-    @Query("SELECT COUNT(s) > 0 FROM SignupRecord s WHERE s.volunteerId = :volunteerId AND s.activityId = :activityId"
-            + " AND s.status != :status")
+    // 以下几个查询都按 volunteerId 排序，方便调用方顺序折叠成每个志愿者的月份位图
+    // 结果行数随志愿者人数增长，所以逐行流式读取（需在只读事务中使用并关闭 Stream）
+    // 志愿者 × 月份（1 ~ 12）去重，用于按年统计留存
+    @Query("SELECT DISTINCT s.volunteerId AS volunteerId, MONTH(s.signupTime) AS monthIndex FROM SignupRecord s "
+            + "WHERE s.signupTime >= :start AND s.signupTime < :end ORDER BY s.volunteerId")
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
     // @formatter:off
-    boolean existsByVolunteerIdAndActivityIdAndStatusNot(
+    Stream<VolunteerMonthRow> streamVolunteerMonthsBetween(
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+    // @formatter:on
+
+    @Query("SELECT DISTINCT s.volunteerId AS volunteerId, MONTH(s.signupTime) AS monthIndex FROM SignupRecord s "
+            + "WHERE s.signupTime IS NOT NULL ORDER BY s.volunteerId")
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<VolunteerMonthRow> streamVolunteerMonths();
+
+    // 首次报名落在 [start, end) 内的志愿者 × 绝对月份（年 × 12 + 月 - 1）去重，用于跨年的 cohort 留存
+    // start 之前报过名的志愿者由 NOT EXISTS 走 (volunteer_id, signup_time) 索引排除
+    @Query("SELECT DISTINCT s.volunteerId AS volunteerId, YEAR(s.signupTime) * 12 + MONTH(s.signupTime) - 1 AS monthIndex "
+            + "FROM SignupRecord s WHERE s.signupTime >= :start AND s.signupTime < :end AND NOT EXISTS ("
+            + "SELECT 1 FROM SignupRecord e WHERE e.volunteerId = s.volunteerId AND e.signupTime < :start) "
+            + "ORDER BY s.volunteerId")
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    // @formatter:off
+    Stream<VolunteerMonthRow> streamCohortVolunteerMonthsBetween(
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+    // @formatter:on
+
+    @Query("SELECT s.id AS id, s.volunteerId AS volunteerId, s.signupTime AS signupTime FROM SignupRecord s "
+            + "WHERE s.signupTime IS NOT NULL")
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingHints.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<SignupSnapshotRow> streamSnapshotRows();
+
+    Optional<SignupRecord> findByVolunteerIdAndActivityId(Long volunteerId, Long activityId);
+
+    // 加锁读取最新提交的记录，不受事务快照影响；正在写入的同一条记录会等它提交
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SignupRecord s WHERE s.volunteerId = :volunteerId AND s.activityId = :activityId")
+    // @formatter:off
+    Optional<SignupRecord> findForUpdate(
         @Param("volunteerId") Long volunteerId,
-        @Param("activityId") Long activityId,
-        @Param("status") SignupStatus status
+        @Param("activityId") Long activityId
     );
     // @formatter:on
+
+    // 候补队首，走 (activity_id, status, waitlist_position) 索引
+    Optional<SignupRecord> findFirstByActivityIdAndStatusOrderByWaitlistPositionAsc(Long activityId, SignupStatus status);
+
+    // 加锁读取候补队首：读到的是最新提交的队首，同时递补的事务会等前一个提交后再读到下一位
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SignupRecord s WHERE s.activityId = :activityId "
+            + "AND s.status = com.volunteer.backend.enums.SignupStatus.WAITLISTED ORDER BY s.waitlistPosition LIMIT 1")
+    Optional<SignupRecord> findWaitlistHeadForUpdate(@Param("activityId") Long activityId);
+
+    // 只有仍在候补中的记录才能递补
+    @Modifying
+    @Query("UPDATE SignupRecord s SET s.status = com.volunteer.backend.enums.SignupStatus.REVIEWING, "
+            + "s.waitlistPosition = null, s.updateTime = :updateTime "
+            + "WHERE s.id = :id AND s.status = com.volunteer.backend.enums.SignupStatus.WAITLISTED")
+    int promoteFromWaitlist(@Param("id") Long id, @Param("updateTime") LocalDateTime updateTime);
+
+    // 排在指定序号之前的候补人数
+    long countByActivityIdAndStatusAndWaitlistPositionLessThan(Long activityId, SignupStatus status, Long waitlistPosition);
+
+    // 走 (volunteer_id, activity_id) 唯一索引
+    @Query("SELECT s.activityId AS activityId, s.status AS status FROM SignupRecord s WHERE s.volunteerId = :volunteerId")
+    List<SignupStatusRow> findStatusesByVolunteerId(@Param("volunteerId") Long volunteerId);
+
+    @Query("SELECT s.id AS id, s.volunteerId AS volunteerId, s.status AS status FROM SignupRecord s "
+            + "WHERE s.activityId = :activityId")
+    List<ActivitySignupRow> findSignupRowsByActivityId(@Param("activityId") Long activityId);
+
+    boolean existsByActivityIdAndStatusNot(Long activityId, SignupStatus status);
+
+    @Modifying
+    @Query("UPDATE SignupRecord s SET s.status = :status, s.updateTime = :updateTime WHERE s.id IN :ids")
+    int updateStatusByIds(@Param("ids") List<Long> ids, @Param("status") SignupStatus status,
+            @Param("updateTime") LocalDateTime updateTime);
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.volunteer.backend.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.volunteer.backend.dto.PointFlowRow;
+import com.volunteer.backend.entity.StatDailyRollup;
+
+@Repository
+public interface StatDailyRollupRepository extends JpaRepository<StatDailyRollup, Long> {
+    @Modifying
+    @Query("DELETE FROM StatDailyRollup r WHERE r.statDate = :statDate")
+    int deleteByStatDate(@Param("statDate") LocalDate statDate);
+
+    // 合计行（两个类型都为空）兼作“这一天已汇总”的标记
+    @Query("SELECT COUNT(r) FROM StatDailyRollup r WHERE r.activityType IS NULL AND r.changeType IS NULL "
+            + "AND r.statDate >= :start AND r.statDate < :end")
+    long countDayTotalsBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Query("SELECT r FROM StatDailyRollup r WHERE r.activityType IS NULL AND r.changeType IS NULL "
+            + "AND r.statDate >= :start AND r.statDate < :end")
+    List<StatDailyRollup> findDayTotalsBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Query("SELECT r FROM StatDailyRollup r WHERE r.activityType IS NOT NULL "
+            + "AND r.statDate >= :start AND r.statDate < :end")
+    List<StatDailyRollup> findActivityTypeRowsBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Query("SELECT r.changeType AS changeType, SUM(r.pointsEarned) AS pointsEarned, SUM(r.pointsSpent) AS pointsSpent "
+            + "FROM StatDailyRollup r WHERE r.changeType IS NOT NULL AND r.statDate >= :start AND r.statDate < :end "
+            + "GROUP BY r.changeType")
+    List<PointFlowRow> sumPointFlowBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+}
@@ -0,0 +1,16 @@
+package com.volunteer.backend.repository;
+
+/**
+ * 流式查询的 JDBC 提示
+ * <p>
+ * MySQL Connector/J 默认把整个结果集读进内存，只有 fetch size 为 Integer.MIN_VALUE 的语句才逐行读取。
+ * 只在返回 Stream 的查询上设置，不需要在连接串上开启 useCursorFetch（那会让所有连接都改用服务端预处理语句）。
+ * 流式结果集关闭之前同一连接上不能执行其他语句，调用方一次只打开一个 Stream
+ * </p>
+ */
+public final class StreamingHints {
+    public static final String FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+    private StreamingHints() {
+    }
+}
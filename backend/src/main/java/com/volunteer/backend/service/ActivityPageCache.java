@@ -0,0 +1,108 @@
+package com.volunteer.backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.volunteer.backend.dto.request.ActivityQueryRequest;
+import com.volunteer.backend.dto.response.ActivityResponse;
+import com.volunteer.backend.dto.response.PageResponse;
+
+/**
+ * 活动列表页缓存
+ * <p>
+ * 缓存的是不含报名状态的渲染结果，所有用户共用，登录用户再叠加自己的报名状态。活动被创建、修改、删除，报名人数变化，
+ * 或者状态引擎推进了活动状态时递增代数，旧代数的缓存全部作废；TTL 兜底脚本直接写库等没有经过后端的修改
+ * </p>
+ */
+@Component
+public class ActivityPageCache {
+    private record Entry(PageResponse<ActivityResponse> page, long generation, long cachedAt) {
+    }
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    // @formatter:off
+    public ActivityPageCache(
+        @Value("${activity.page-cache.enabled:true}") boolean enabled,
+        @Value("${activity.page-cache.ttl-seconds:30}") long ttlSeconds,
+        @Value("${activity.page-cache.max-entries:256}") int maxEntries
+    ) {
+        // @formatter:on
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(ttlSeconds, 0));
+        int capacity = Math.max(maxEntries, 1);
+        // 访问顺序的 LinkedHashMap，超出上限时淘汰最久未访问的页
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public static String key(ActivityQueryRequest request) {
+        // @formatter:off
+        return String.join("|",
+            String.valueOf(request.getPage()),
+            String.valueOf(request.getSize()),
+            String.valueOf(request.getKeyword()),
+            String.valueOf(request.getType()),
+            String.valueOf(request.getStatus()),
+            String.valueOf(request.getDate()),
+            String.valueOf(request.getSort()),
+            String.valueOf(request.getCursor()),
+            String.valueOf(request.isSlice())
+        );
+        // @formatter:on
+    }
+
+    // 返回的页面是共享的，调用方不能修改
+    public PageResponse<ActivityResponse> get(String key, Supplier<PageResponse<ActivityResponse>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        long expectedGeneration = generation.get();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.generation() == expectedGeneration
+                    && System.nanoTime() - entry.cachedAt() < ttlNanos) {
+                return entry.page();
+            }
+        }
+
+        PageResponse<ActivityResponse> page = loader.get();
+        // 查询期间发生过失效的结果不写回缓存
+        if (generation.get() == expectedGeneration) {
+            synchronized (entries) {
+                entries.put(key, new Entry(page, expectedGeneration, System.nanoTime()));
+            }
+        }
+        return page;
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        // 事务提交前其他请求仍可能读到旧数据并写回缓存，所以提交后再递增一次
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        }
+    }
+}
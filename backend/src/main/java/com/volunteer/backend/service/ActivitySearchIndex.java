@@ -0,0 +1,255 @@
+package com.volunteer.backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.volunteer.backend.dto.ActivitySearchDocument;
+import com.volunteer.backend.entity.Activity;
+import com.volunteer.backend.repository.ActivityRepository;
+
+/**
+ * 活动标题和描述的 n-gram 倒排索引
+ * <p>
+ * 中文没有空格分词，这里对小写后的文本同时建立单字和双字索引：查询时取关键字所有双字（单字关键字取单字）的倒排表求交集，
+ * 再对候选活动做一次子串校验，结果与原来的 LIKE '%kw%' 一致，但只需要扫描最短的那条倒排表
+ * </p>
+ */
+@Component
+public class ActivitySearchIndex {
+    private record Document(String title, String description) {
+    }
+
+    // 返回给调用方的命中结果，score 越大越相关
+    public record Match(Long activityId, int score) {
+    }
+
+    private final ActivityRepository activityRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private volatile boolean loaded = false;
+
+    // @formatter:off
+    public ActivitySearchIndex(
+        ActivityRepository activityRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        // @formatter:on
+        this.activityRepository = activityRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i < text.length(); i++) {
+            grams.add(text.substring(i, i + 1));
+            if (i + 1 < text.length()) {
+                grams.add(text.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+
+    private static int countOccurrences(String text, String keyword) {
+        int count = 0;
+        int from = text.indexOf(keyword);
+        while (from >= 0) {
+            count++;
+            from = text.indexOf(keyword, from + keyword.length());
+        }
+        return count;
+    }
+
+    // 以下三个方法在调用方事务提交后才修改索引，回滚的写入不会进入索引
+    public void put(Activity activity) {
+        Long id = activity.getId();
+        Document document = new Document(normalize(activity.getTitle()), normalize(activity.getDescription()));
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    index(id, document);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long activityId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    unindex(activityId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // 测试数据脚本直接写库时需要手动重建
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            load();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                load();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() {
+        documents.clear();
+        postings.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ActivitySearchDocument> rows = activityRepository.streamSearchDocuments()) {
+                Iterator<ActivitySearchDocument> it = rows.iterator();
+                while (it.hasNext()) {
+                    ActivitySearchDocument row = it.next();
+                    index(row.getId(), new Document(normalize(row.getTitle()), normalize(row.getDescription())));
+                }
+            }
+        });
+        loaded = true;
+    }
+
+    private void index(Long id, Document document) {
+        unindex(id);
+        documents.put(id, document);
+        Set<String> all = grams(document.title());
+        all.addAll(grams(document.description()));
+        for (String gram : all) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void unindex(Long id) {
+        Document old = documents.remove(id);
+        if (old == null) {
+            return;
+        }
+        Set<String> all = grams(old.title());
+        all.addAll(grams(old.description()));
+        for (String gram : all) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    // 按相关度从高到低返回标题或描述包含关键字的活动
+    public List<Match> search(String keyword) {
+        String kw = normalize(keyword);
+        if (kw.isEmpty()) {
+            return new ArrayList<>();
+        }
+        ensureLoaded();
+
+        Set<String> queryGrams = new HashSet<>();
+        if (kw.length() == 1) {
+            queryGrams.add(kw);
+        } else {
+            for (int i = 0; i + 2 <= kw.length(); i++) {
+                queryGrams.add(kw.substring(i, i + 2));
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            // 从最短的倒排表开始求交集
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : queryGrams) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return new ArrayList<>();
+                }
+                lists.add(ids);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+            List<Match> matches = new ArrayList<>();
+            for (Long id : lists.get(0)) {
+                boolean inAll = true;
+                for (int i = 1; i < lists.size() && inAll; i++) {
+                    inAll = lists.get(i).contains(id);
+                }
+                if (!inAll) {
+                    continue;
+                }
+
+                // 双字都出现不代表整个关键字连续出现，还要做一次子串校验
+                Document document = documents.get(id);
+                int titleHits = countOccurrences(document.title(), kw);
+                int descriptionHits = countOccurrences(document.description(), kw);
+                if (titleHits == 0 && descriptionHits == 0) {
+                    continue;
+                }
+                // 标题命中权重远高于描述，标题完全等于关键字再额外加分
+                int score = titleHits * 10 + Math.min(descriptionHits, 9);
+                if (document.title().equals(kw)) {
+                    score += 20;
+                }
+                matches.add(new Match(id, score));
+            }
+            matches.sort((a, b) -> Integer.compare(b.score(), a.score()));
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
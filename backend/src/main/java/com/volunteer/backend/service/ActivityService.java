@@ -1,20 +1,28 @@
 package com.volunteer.backend.service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.volunteer.backend.dto.ActivitySearchHit;
+import com.volunteer.backend.dto.PageCursor;
 import com.volunteer.backend.dto.request.ActivityQueryRequest;
 import com.volunteer.backend.dto.request.SignupRequest;
 import com.volunteer.backend.dto.response.ActivityResponse;
@@ -34,38 +42,128 @@ import com.volunteer.backend.repository.VolunteerRepository;
 @Service
 public class ActivityService {
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int HOT_ACTIVITY_LIMIT = 3;
 
     private final ActivityRepository activityRepository;
     private final VolunteerRepository volunteerRepository;
     private final SignupRecordRepository signupRecordRepository;
+    private final VolunteerRadarCache volunteerRadarCache;
+    private final AnalyticsSnapshot analyticsSnapshot;
+    private final ActivitySearchIndex activitySearchIndex;
+    private final ApproximateCountCache approximateCountCache;
+    private final HotActivityRanking hotActivityRanking;
+    private final ActivityPageCache activityPageCache;
+    private final VolunteerSignupStatusCache volunteerSignupStatusCache;
+    private final FlashSignupService flashSignupService;
+    private final ActivityWaitlist activityWaitlist;
+    private final StatRollupService statRollupService;
 
     // @formatter:off
     public ActivityService(
         ActivityRepository activityRepository,
         VolunteerRepository volunteerRepository,
-        SignupRecordRepository signupRecordRepository
+        SignupRecordRepository signupRecordRepository,
+        VolunteerRadarCache volunteerRadarCache,
+        AnalyticsSnapshot analyticsSnapshot,
+        ActivitySearchIndex activitySearchIndex,
+        ApproximateCountCache approximateCountCache,
+        HotActivityRanking hotActivityRanking,
+        ActivityPageCache activityPageCache,
+        VolunteerSignupStatusCache volunteerSignupStatusCache,
+        FlashSignupService flashSignupService,
+        ActivityWaitlist activityWaitlist,
+        StatRollupService statRollupService
     ) {
         // @formatter:on
         this.activityRepository = activityRepository;
         this.volunteerRepository = volunteerRepository;
         this.signupRecordRepository = signupRecordRepository;
+        this.volunteerRadarCache = volunteerRadarCache;
+        this.analyticsSnapshot = analyticsSnapshot;
+        this.activitySearchIndex = activitySearchIndex;
+        this.approximateCountCache = approximateCountCache;
+        this.hotActivityRanking = hotActivityRanking;
+        this.activityPageCache = activityPageCache;
+        this.volunteerSignupStatusCache = volunteerSignupStatusCache;
+        this.flashSignupService = flashSignupService;
+        this.activityWaitlist = activityWaitlist;
+        this.statRollupService = statRollupService;
     }
 
-    private void refreshActivityStatus(Activity activity, LocalDateTime now) {
-        if (activity.getStatus() == ActivityStatus.CANCELLED) {
-            return;
+    // 与 findActivitiesByStatusOrder 中的 CASE 排序保持一致
+    private int statusRank(ActivityStatus status) {
+        if (status == null) {
+            return 3;
         }
+        switch (status) {
+        case RECRUITING:
+        case CONFIRMED:
+            return 0;
+        case ONGOING:
+            return 1;
+        case COMPLETED:
+        case CANCELLED:
+            return 2;
+        default:
+            return 3;
+        }
+    }
+
+    // @formatter:off
+    private Page<Activity> searchActivities(
+        String keyword,
+        ActivityType type,
+        ActivityStatus status,
+        LocalDateTime dayStart,
+        LocalDateTime dayEnd,
+        boolean statusOrder,
+        Pageable pageable
+    ) {
+        // @formatter:on
+        Map<Long, Integer> scores = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        for (ActivitySearchIndex.Match match : activitySearchIndex.search(keyword)) {
+            scores.put(match.activityId(), match.score());
+            ids.add(match.activityId());
+        }
+
+        // 其余条件仍交给数据库过滤，分批避免 IN 列表过长
+        List<ActivitySearchHit> hits = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += 1000) {
+            List<Long> batch = ids.subList(i, Math.min(i + 1000, ids.size()));
+            hits.addAll(activityRepository.filterSearchHits(batch, type, status, dayStart, dayEnd));
+        }
+
+        // 相关度优先，相同时按开始时间倒序；按状态排序时先分组再看相关度
+        Comparator<ActivitySearchHit> order = Comparator
+                .comparing((ActivitySearchHit h) -> scores.get(h.getId()), Comparator.reverseOrder())
+                .thenComparing(ActivitySearchHit::getStartTime, Comparator.nullsLast(Comparator.reverseOrder()));
+        if (statusOrder) {
+            order = Comparator.comparingInt((ActivitySearchHit h) -> statusRank(h.getStatus())).thenComparing(order);
+        }
+        hits.sort(order);
 
-        if (now.isAfter(activity.getEndTime())) {
-            activity.setStatus(ActivityStatus.COMPLETED);
-            return;
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + pageable.getPageSize(), hits.size());
+        List<Long> pageIds = new ArrayList<>();
+        for (ActivitySearchHit hit : hits.subList(from, to)) {
+            pageIds.add(hit.getId());
         }
 
-        if (now.isAfter(activity.getStartTime()) || now.isEqual(activity.getStartTime())) {
-            activity.setStatus(ActivityStatus.ONGOING);
-        } else if (activity.getStatus() == ActivityStatus.COMPLETED) {
-            activity.setStatus(ActivityStatus.RECRUITING);
+        // 只加载当前页的活动实体，再按排好的顺序输出
+        Map<Long, Activity> activityMap = new HashMap<>();
+        for (Activity activity : activityRepository.findAllById(pageIds)) {
+            activityMap.put(activity.getId(), activity);
         }
+        List<Activity> content = new ArrayList<>();
+        for (Long id : pageIds) {
+            Activity activity = activityMap.get(id);
+            if (activity != null) {
+                content.add(activity);
+            }
+        }
+
+        return new PageImpl<>(content, pageable, hits.size());
     }
 
     private ActivityResponse buildResponse(Activity activity, SignupStatus signupStatus) {
@@ -93,6 +191,42 @@ public class ActivityService {
         ActivityQueryRequest request
     ) {
         // @formatter:on
+        PageResponse<ActivityResponse> page = activityPageCache.get(ActivityPageCache.key(request),
+                () -> queryActivities(request));
+        if (userId == null || page.getContent().isEmpty()) {
+            return page;
+        }
+
+        // 构建志愿者用户报名状态映射
+        List<Long> activityIds = new ArrayList<>();
+        for (ActivityResponse response : page.getContent()) {
+            activityIds.add(response.getId());
+        }
+        Map<Long, SignupStatus> signupStatusMap = volunteerSignupStatusCache.getStatuses(userId, activityIds);
+        if (signupStatusMap.isEmpty()) {
+            return page;
+        }
+
+        List<ActivityResponse> content = new ArrayList<>();
+        for (ActivityResponse response : page.getContent()) {
+            content.add(response.withSignupStatus(signupStatusMap.get(response.getId())));
+        }
+        // @formatter:off
+        PageResponse<ActivityResponse> overlaid = new PageResponse<>(
+            content,
+            page.getCurPage(),
+            page.getPageSize(),
+            page.getTotalElements(),
+            page.getTotalPages()
+        );
+        // @formatter:on
+        overlaid.setHasNext(page.isHasNext());
+        overlaid.setNextCursor(page.getNextCursor());
+        return overlaid;
+    }
+
+    // 列表页的查询结果不含报名状态，可以被所有用户共享
+    private PageResponse<ActivityResponse> queryActivities(ActivityQueryRequest request) {
         if (request.getPage() < 0) {
             throw new IllegalArgumentException("页码不能小于0");
         }
@@ -126,45 +260,81 @@ public class ActivityService {
             }
         }
 
-        Page<Activity> activityPage;
-        if ("status".equalsIgnoreCase(request.getSort())) {
-            activityPage = activityRepository.findActivitiesByStatusOrder(
-                    request.getKeyword() != null ? request.getKeyword() : "", activityType, activityStatus,
-                    request.getDate() != null ? request.getDate() : "", pageable);
-        } else {
-            activityPage = activityRepository.findActivities(request.getKeyword() != null ? request.getKeyword() : "",
-                    activityType, activityStatus, request.getDate() != null ? request.getDate() : "", pageable);
+        // 日期转成当天 [0 点, 次日 0 点) 的区间
+        LocalDateTime dayStart = null;
+        LocalDateTime dayEnd = null;
+        if (request.getDate() != null && !request.getDate().isEmpty()) {
+            try {
+                dayStart = LocalDate.parse(request.getDate()).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("日期格式不正确，请使用 yyyy-MM-dd 格式");
+            }
+            dayEnd = dayStart.plusDays(1);
         }
 
-        LocalDateTime now = LocalDateTime.now();
-        List<ActivityResponse> content = new ArrayList<>();
+        Page<Activity> activityPage = null;
+        Slice<Activity> activitySlice = null;
+        List<Activity> activities = List.of();
+        String nextCursor = null;
+        if (request.getCursor() != null) {
+            if (request.getKeyword() != null && !request.getKeyword().isEmpty()) {
+                throw new IllegalArgumentException("关键字搜索不支持游标分页");
+            }
+            if ("status".equalsIgnoreCase(request.getSort())) {
+                throw new IllegalArgumentException("按状态排序时不支持游标分页");
+            }
 
-        // 构建志愿者用户报名状态映射
-        Map<Long, SignupStatus> signupStatusMap = new HashMap<>();
-        if (userId != null) {
-            Optional<Volunteer> v = volunteerRepository.findByUserIdAndDeletedFalse(userId);
-            if (v.isPresent()) {
-                Volunteer volunteer = v.get();
-                if (volunteer.getStatus() == VolunteerStatus.CERTIFIED) {
-                    List<Long> activityIds = new ArrayList<>();
-                    for (Activity activity : activityPage.getContent()) {
-                        activityIds.add(activity.getId());
-                    }
-                    if (!activityIds.isEmpty()) {
-                        List<SignupRecord> signupRecords = signupRecordRepository
-                                .findByVolunteerIdAndActivityIds(volunteer.getId(), activityIds);
-                        for (SignupRecord record : signupRecords) {
-                            signupStatusMap.put(record.getActivityId(), record.getStatus());
-                        }
-                    }
-                }
+            PageCursor after = PageCursor.decode(request.getCursor());
+            // 多取一条用来判断是否还有下一页
+            // @formatter:off
+            activities = activityRepository.seekActivities(
+                activityType,
+                activityStatus,
+                dayStart,
+                dayEnd,
+                after != null ? after.getTime() : null,
+                after != null ? after.getId() : null,
+                Limit.of(request.getSize() + 1)
+            );
+            // @formatter:on
+            if (activities.size() > request.getSize()) {
+                activities = activities.subList(0, request.getSize());
+                Activity last = activities.get(activities.size() - 1);
+                nextCursor = new PageCursor(last.getStartTime(), last.getId()).encode();
             }
+        } else if (request.getKeyword() != null && !request.getKeyword().isEmpty()) {
+            activityPage = searchActivities(request.getKeyword(), activityType, activityStatus, dayStart, dayEnd,
+                    "status".equalsIgnoreCase(request.getSort()), PageRequest.of(request.getPage(), request.getSize()));
+        } else if (request.isSlice()) {
+            if ("status".equalsIgnoreCase(request.getSort())) {
+                activitySlice = activityRepository.sliceActivitiesByStatusOrder(activityType, activityStatus, dayStart,
+                        dayEnd, pageable);
+            } else {
+                activitySlice = activityRepository.sliceActivities(activityType, activityStatus, dayStart, dayEnd,
+                        pageable);
+            }
+            activities = activitySlice.getContent();
+        } else if ("status".equalsIgnoreCase(request.getSort())) {
+            activityPage = activityRepository.findActivitiesByStatusOrder(activityType, activityStatus, dayStart, dayEnd,
+                    pageable);
+        } else {
+            activityPage = activityRepository.findActivities(activityType, activityStatus, dayStart, dayEnd, pageable);
+        }
+        if (activityPage != null) {
+            activities = activityPage.getContent();
         }
 
-        for (Activity activity : activityPage.getContent()) {
-            refreshActivityStatus(activity, now);
-            SignupStatus signupStatus = signupStatusMap.get(activity.getId());
-            content.add(buildResponse(activity, signupStatus));
+        List<ActivityResponse> content = new ArrayList<>();
+        for (Activity activity : activities) {
+            content.add(buildResponse(activity, null));
+        }
+
+        if (activitySlice != null) {
+            Long total = approximateActivityCount(activityType, activityStatus, dayStart, dayEnd);
+            return new PageResponse<>(content, request.getPage(), request.getSize(), activitySlice.hasNext(), total);
+        }
+        if (activityPage == null) {
+            return new PageResponse<>(content, request.getSize(), nextCursor);
         }
 
         // @formatter:off
@@ -178,6 +348,15 @@ public class ActivityService {
         // @formatter:on
     }
 
+    // Slice 模式的总数，请求线程不执行 COUNT，见 ApproximateCountCache
+    private Long approximateActivityCount(ActivityType type, ActivityStatus status, LocalDateTime dayStart,
+            LocalDateTime dayEnd) {
+        String key = "activities:" + type + ":" + status + ":" + dayStart;
+        return approximateCountCache.get(key,
+                () -> activityRepository.findActivities(type, status, dayStart, dayEnd, PageRequest.of(0, 1))
+                        .getTotalElements());
+    }
+
     @Transactional
     public SignupResponse signupActivity(Long userId, SignupRequest request) {
         Optional<Volunteer> v = volunteerRepository.findByUserIdAndDeletedFalse(userId);
@@ -200,16 +379,6 @@ public class ActivityService {
             throw new IllegalArgumentException("该活动当前不接受报名");
         }
 
-        boolean hasSignedUp = signupRecordRepository.existsByVolunteerIdAndActivityIdAndStatusNot(volunteer.getId(),
-                request.getActivityId(), SignupStatus.CANCELLED);
-        if (hasSignedUp) {
-            throw new IllegalArgumentException("您已经报名了该活动");
-        }
-
-        if (activity.getMaxParticipants() != null && activity.getCurParticipants() >= activity.getMaxParticipants()) {
-            throw new IllegalArgumentException("活动报名人数已满");
-        }
-
         LocalDateTime volunteerStartTime = null;
         LocalDateTime volunteerEndTime = null;
 
@@ -229,26 +398,90 @@ public class ActivityService {
             }
         }
 
-        // @formatter:off
-        SignupRecord signupRecord = new SignupRecord(
-            volunteer.getId(),
-            request.getActivityId(),
-            volunteerStartTime,
-            volunteerEndTime
-        );
-        // @formatter:on
+        // 抢报模式：名额在内存中分配，报名记录异步批量写入
+        if (Boolean.TRUE.equals(activity.getFlashMode())) {
+            return flashSignupService.admit(volunteer.getId(), activity.getId(), volunteerStartTime, volunteerEndTime);
+        }
+
+        // 抽签模式：抽签前只登记报名，不检查名额，到时统一抽签；抽签后和普通活动一样占名额或进候补
+        boolean lottery = LotteryDrawService.isPending(activity);
+        if (lottery) {
+            lockPendingLottery(activity);
+        }
+
+        // (volunteer_id, activity_id) 上有唯一索引，取消后再次报名时复用原来的那条记录
+        Optional<SignupRecord> existing = signupRecordRepository.findByVolunteerIdAndActivityId(volunteer.getId(),
+                request.getActivityId());
+        if (existing.isPresent() && existing.get().getStatus() != SignupStatus.CANCELLED) {
+            throw new IllegalArgumentException("您已经报名了该活动");
+        }
+
+        // 名额由条件 UPDATE 原子占用，不能先读人数再写回，否则并发报名时会超员；占不到名额就进候补队列
+        boolean waitlisted = !lottery && activityRepository.reserveSeat(activity.getId()) == 0;
+
+        SignupRecord signupRecord;
+        if (existing.isPresent()) {
+            signupRecord = existing.get();
+            // 报名时间挪到今天，原来那天的汇总里还算着这条报名
+            statRollupService.rollupAfterCommit(List.of(signupRecord.getSignupTime().toLocalDate()));
+            signupRecord.setVolunteerStartTime(volunteerStartTime);
+            signupRecord.setVolunteerEndTime(volunteerEndTime);
+            signupRecord.setSignupTime(LocalDateTime.now());
+            signupRecord.setNote(null);
+        } else {
+            // @formatter:off
+            signupRecord = new SignupRecord(
+                volunteer.getId(),
+                request.getActivityId(),
+                volunteerStartTime,
+                volunteerEndTime
+            );
+            // @formatter:on
+        }
 
-        signupRecord.setStatus(SignupStatus.REVIEWING);
+        long waitlistRank = 0;
+        if (waitlisted) {
+            waitlistRank = activityWaitlist.enqueue(signupRecord);
+        } else {
+            signupRecord.setStatus(SignupStatus.REVIEWING);
+            signupRecord.setWaitlistPosition(null);
+        }
         signupRecord.setUpdateTime(LocalDateTime.now());
 
         signupRecord = signupRecordRepository.save(signupRecord);
+        if (existing.isPresent()) {
+            analyticsSnapshot.markStale();
+        } else {
+            analyticsSnapshot.appendSignup(signupRecord);
+        }
 
-        activity.setCurParticipants(activity.getCurParticipants() + 1);
-        activityRepository.save(activity);
+        volunteerSignupStatusCache.update(volunteer.getId(), activity.getId(), signupRecord.getStatus());
+        volunteerRadarCache.invalidate(volunteer.getId());
+        if (lottery) {
+            return new SignupResponse(signupRecord.getId(),
+                    "报名成功，将于 " + activity.getLotteryDrawTime().format(DATETIME_FORMATTER) + " 抽签确定名单");
+        }
+        if (waitlisted) {
+            SignupResponse response = new SignupResponse(signupRecord.getId(),
+                    "活动报名人数已满，已加入候补，当前排在第 " + waitlistRank + " 位");
+            response.setWaitlistPosition(waitlistRank);
+            return response;
+        }
+
+        hotActivityRanking.refresh(activity.getId());
+        activityPageCache.invalidate();
 
         return new SignupResponse(signupRecord.getId(), "报名成功");
     }
 
+    // 用共享锁读种子：抽签要等持有锁的报名 / 取消提交后才能写入种子，这些报名一定会被抽到。
+    // 读到种子说明抽签刚好在本事务开始后完成，之前读到的报名状态已经过时，让用户重新操作
+    private void lockPendingLottery(Activity activity) {
+        if (activityRepository.findLotterySeedForShare(activity.getId()) != null) {
+            throw new IllegalArgumentException("该活动刚刚完成抽签，请重新操作");
+        }
+    }
+
     @Transactional
     public SignupResponse cancelSignupActivity(Long userId, SignupRequest request) {
         Optional<Volunteer> v = volunteerRepository.findByUserIdAndDeletedFalse(userId);
@@ -263,8 +496,19 @@ public class ActivityService {
         }
         Activity activity = a.get();
 
-        Optional<SignupRecord> s = signupRecordRepository.findByVolunteerIdAndActivityId(volunteer.getId(),
-                request.getActivityId());
+        // 抢报模式下这条报名可能还在写入队列里，直接从队列中撤回，不用等它写入
+        boolean flash = Boolean.TRUE.equals(activity.getFlashMode());
+        if (flash && activity.getStatus() != ActivityStatus.ONGOING
+                && activity.getStatus() != ActivityStatus.COMPLETED) {
+            Long withdrawnId = flashSignupService.withdraw(activity.getId(), volunteer.getId());
+            if (withdrawnId != null) {
+                return new SignupResponse(withdrawnId, "取消报名成功");
+            }
+        }
+
+        // 加锁读取：同一条报名的重复取消排队执行，后一个读到已取消的状态，不会释放两次名额；
+        // 抢报模式下记录可能刚由写入线程提交，也要加锁读取才能看到
+        Optional<SignupRecord> s = signupRecordRepository.findForUpdate(volunteer.getId(), request.getActivityId());
         if (s.isEmpty()) {
             throw new IllegalArgumentException("您还未报名该活动");
         }
@@ -278,46 +522,43 @@ public class ActivityService {
             throw new IllegalArgumentException("活动已经开始或已结束，无法取消报名");
         }
 
+        boolean pending = LotteryDrawService.isPending(activity);
+        if (pending) {
+            lockPendingLottery(activity);
+        }
+
+        SignupStatus oldStatus = signupRecord.getStatus();
         signupRecord.setStatus(SignupStatus.CANCELLED);
+        signupRecord.setWaitlistPosition(null);
         signupRecord.setUpdateTime(LocalDateTime.now());
         signupRecordRepository.save(signupRecord);
 
-        activity.setCurParticipants(Math.max(0, activity.getCurParticipants() - 1));
-        activityRepository.save(activity);
+        if (flash) {
+            flashSignupService.cancelled(activity.getId(), volunteer.getId(), signupRecord.getId(), oldStatus);
+        } else if (ActivityWaitlist.holdsSeat(oldStatus) && !pending) {
+            // 空出来的名额在同一事务里交给候补队首
+            activityWaitlist.releaseSeat(activity.getId());
+        }
+        volunteerSignupStatusCache.update(volunteer.getId(), activity.getId(), SignupStatus.CANCELLED);
+        hotActivityRanking.refresh(activity.getId());
+        activityPageCache.invalidate();
+        volunteerRadarCache.invalidate(volunteer.getId());
 
         return new SignupResponse(signupRecord.getId(), "取消报名成功");
     }
 
     public List<ActivityResponse> getHotActivities(Long userId) {
-        Pageable pageable = PageRequest.of(0, 3);
-        List<Activity> activities = activityRepository.findHotActivities(pageable);
+        List<Activity> activities = hotActivityRanking.top(HOT_ACTIVITY_LIMIT, LocalDateTime.now());
 
-        LocalDateTime now = LocalDateTime.now();
         List<ActivityResponse> content = new ArrayList<>();
 
-        Map<Long, SignupStatus> signupStatusMap = new HashMap<>();
-        if (userId != null) {
-            Optional<Volunteer> v = volunteerRepository.findByUserIdAndDeletedFalse(userId);
-            if (v.isPresent()) {
-                Volunteer volunteer = v.get();
-                if (volunteer.getStatus() == VolunteerStatus.CERTIFIED) {
-                    List<Long> activityIds = new ArrayList<>();
-                    for (Activity activity : activities) {
-                        activityIds.add(activity.getId());
-                    }
-                    if (!activityIds.isEmpty()) {
-                        List<SignupRecord> signupRecords = signupRecordRepository
-                                .findByVolunteerIdAndActivityIds(volunteer.getId(), activityIds);
-                        for (SignupRecord record : signupRecords) {
-                            signupStatusMap.put(record.getActivityId(), record.getStatus());
-                        }
-                    }
-                }
-            }
+        List<Long> activityIds = new ArrayList<>();
+        for (Activity activity : activities) {
+            activityIds.add(activity.getId());
         }
+        Map<Long, SignupStatus> signupStatusMap = volunteerSignupStatusCache.getStatuses(userId, activityIds);
 
         for (Activity activity : activities) {
-            refreshActivityStatus(activity, now);
             SignupStatus signupStatus = signupStatusMap.get(activity.getId());
             content.add(buildResponse(activity, signupStatus));
         }
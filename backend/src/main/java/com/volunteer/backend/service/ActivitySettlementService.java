@@ -0,0 +1,263 @@
+package com.volunteer.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.volunteer.backend.dto.request.AdminActivitySettleRequest;
+import com.volunteer.backend.dto.request.AdminSettleParticipantRequest;
+import com.volunteer.backend.dto.response.AdminActivitySettleResponse;
+import com.volunteer.backend.entity.Activity;
+import com.volunteer.backend.entity.SignupRecord;
+import com.volunteer.backend.enums.ActivityStatus;
+import com.volunteer.backend.enums.PointChangeType;
+import com.volunteer.backend.enums.RelatedRecordType;
+import com.volunteer.backend.enums.SignupStatus;
+import com.volunteer.backend.repository.ActivityRepository;
+import com.volunteer.backend.repository.SignupRecordRepository;
+
+/**
+ * 活动结算
+ * <p>
+ * 活动结束后一次性为所有参与者计算服务时长和积分：报名记录、ACTIVITY_EARN 积分流水和志愿者积分余额分别作为一组 JDBC 批量语句，
+ * 在同一个事务里写入，语句条数不随人数增长。MySQL 驱动开启 rewriteBatchedStatements 后，流水的 INSERT 合并成多行 INSERT，
+ * 两组 UPDATE 按多语句包发送，省掉逐条往返，但服务器仍然逐行执行。已确认 / 已参与且还没有积分的报名视为未结算；
+ * 指定了参与名单时，名单外未结算的报名记为未到场
+ * </p>
+ */
+@Service
+public class ActivitySettlementService {
+    private static final int BATCH_SIZE = 500;
+
+    private static final String LOCK_ACTIVITY_SQL = "select id from activity where id = ? for update";
+    private static final String SIGNUP_SQL = "update signup_record set status = ?, actual_hours = ?, points = ?, "
+            + "update_time = ? where id = ? and status in ('CONFIRMED', 'PARTICIPATED') and points is null";
+    private static final String LEDGER_SQL = "insert into point_change_record (volunteer_id, change_points, "
+            + "change_type, reason, related_record_id, related_record_type, balance_after, change_time, note) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String BALANCE_SQL = "update volunteer set points = points + ? where id = ?";
+
+    private final ActivityRepository activityRepository;
+    private final SignupRecordRepository signupRecordRepository;
+    private final KpiAggregateService kpiAggregateService;
+    private final VolunteerRadarCache volunteerRadarCache;
+    private final VolunteerSignupStatusCache volunteerSignupStatusCache;
+    private final AnalyticsSnapshot analyticsSnapshot;
+    private final FlashSignupService flashSignupService;
+    private final StatRollupService statRollupService;
+    private final JdbcTemplate jdbcTemplate;
+
+    // @formatter:off
+    public ActivitySettlementService(
+        ActivityRepository activityRepository,
+        SignupRecordRepository signupRecordRepository,
+        KpiAggregateService kpiAggregateService,
+        VolunteerRadarCache volunteerRadarCache,
+        VolunteerSignupStatusCache volunteerSignupStatusCache,
+        AnalyticsSnapshot analyticsSnapshot,
+        FlashSignupService flashSignupService,
+        StatRollupService statRollupService,
+        DataSource dataSource
+    ) {
+        this.activityRepository = activityRepository;
+        this.signupRecordRepository = signupRecordRepository;
+        this.kpiAggregateService = kpiAggregateService;
+        this.volunteerRadarCache = volunteerRadarCache;
+        this.volunteerSignupStatusCache = volunteerSignupStatusCache;
+        this.analyticsSnapshot = analyticsSnapshot;
+        this.flashSignupService = flashSignupService;
+        this.statRollupService = statRollupService;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+    // @formatter:on
+
+    @Transactional
+    public AdminActivitySettleResponse settleActivity(Long activityId, AdminActivitySettleRequest request) {
+        // 抢报模式的报名可能还在写入队列里；写入在独立事务中提交，要在本事务读取任何数据之前完成
+        flashSignupService.flush();
+
+        // 先锁活动行再读：同一活动的结算串行执行，后到的结算在前一次提交后才建立读取快照，看得到已经发放的积分
+        jdbcTemplate.queryForList(LOCK_ACTIVITY_SQL, Long.class, activityId);
+
+        Optional<Activity> a = activityRepository.findById(activityId);
+        if (a.isEmpty()) {
+            throw new IllegalArgumentException("活动不存在");
+        }
+        Activity activity = a.get();
+
+        if (activity.getStatus() != ActivityStatus.COMPLETED) {
+            throw new IllegalArgumentException("活动结束后才能结算");
+        }
+
+        Map<Long, SignupRecord> unsettled = new LinkedHashMap<>();
+        for (SignupRecord r : signupRecordRepository.findByActivityIdOrderBySignupTimeDesc(activityId)) {
+            boolean attended = r.getStatus() == SignupStatus.CONFIRMED || r.getStatus() == SignupStatus.PARTICIPATED;
+            if (attended && r.getPoints() == null) {
+                unsettled.put(r.getId(), r);
+            }
+        }
+        if (unsettled.isEmpty()) {
+            throw new IllegalArgumentException("没有需要结算的报名记录");
+        }
+
+        // 报名 id → 手动填写的服务时长（null 表示按起止时间计算）
+        Map<Long, Integer> participants = new HashMap<>();
+        List<AdminSettleParticipantRequest> list = request != null ? request.getParticipants() : null;
+        if (list == null || list.isEmpty()) {
+            for (Long signupId : unsettled.keySet()) {
+                participants.put(signupId, null);
+            }
+        } else {
+            for (AdminSettleParticipantRequest p : list) {
+                if (p.getSignupId() == null || !unsettled.containsKey(p.getSignupId())) {
+                    throw new IllegalArgumentException("报名记录 " + p.getSignupId() + " 不存在、未确认或已经结算");
+                }
+                if (p.getActualHours() != null && p.getActualHours() < 0) {
+                    throw new IllegalArgumentException("实际服务时长不能为负数");
+                }
+                participants.put(p.getSignupId(), p.getActualHours());
+            }
+        }
+
+        Map<Long, Double> balances = lockBalances(participants.keySet(), unsettled);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<SignupRecord> records = new ArrayList<>(unsettled.values());
+        int[] hours = new int[records.size()];
+        List<Object[]> signupArgs = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            SignupRecord r = records.get(i);
+            if (!participants.containsKey(r.getId())) {
+                signupArgs.add(new Object[] { SignupStatus.UNARRIVED.name(), null, null, now, r.getId() });
+                continue;
+            }
+            Integer manualHours = participants.get(r.getId());
+            hours[i] = manualHours != null ? manualHours : serviceHours(r, activity);
+            double points = hours[i] * activity.getPointsPerHour();
+            signupArgs.add(new Object[] { SignupStatus.PARTICIPATED.name(), hours[i], points, now, r.getId() });
+        }
+        // 条件 UPDATE 只改还没有积分的报名，更新了 1 行的才发放积分，其余已经被别的结算处理过
+        int[] counts = jdbcTemplate.batchUpdate(SIGNUP_SQL, signupArgs);
+
+        String reason = "参加活动: " + activity.getTitle();
+        List<Object[]> ledgerArgs = new ArrayList<>(participants.size());
+        List<Object[]> balanceArgs = new ArrayList<>(participants.size());
+        int participated = 0;
+        int unarrived = 0;
+        int oldHours = 0;
+        int totalHours = 0;
+        double totalPoints = 0;
+        List<Long> volunteerIds = new ArrayList<>(records.size());
+        List<LocalDate> rollupDays = new ArrayList<>(records.size());
+
+        for (int i = 0; i < records.size(); i++) {
+            if (counts[i] != 1) {
+                continue;
+            }
+            SignupRecord r = records.get(i);
+            oldHours += r.getActualHours() != null ? r.getActualHours() : 0;
+            volunteerIds.add(r.getVolunteerId());
+            rollupDays.add(r.getSignupTime().toLocalDate());
+
+            if (!participants.containsKey(r.getId())) {
+                unarrived++;
+                volunteerSignupStatusCache.update(r.getVolunteerId(), activityId, SignupStatus.UNARRIVED);
+                continue;
+            }
+
+            double points = hours[i] * activity.getPointsPerHour();
+            participated++;
+            totalHours += hours[i];
+            totalPoints += points;
+            volunteerSignupStatusCache.update(r.getVolunteerId(), activityId, SignupStatus.PARTICIPATED);
+
+            Double balance = balances.get(r.getVolunteerId());
+            if (points > 0 && balance != null) {
+                balance += points;
+                balances.put(r.getVolunteerId(), balance);
+                // @formatter:off
+                ledgerArgs.add(new Object[] {
+                    r.getVolunteerId(),
+                    points,
+                    PointChangeType.ACTIVITY_EARN.name(),
+                    reason,
+                    r.getId(),
+                    RelatedRecordType.SIGNUP.name(),
+                    balance,
+                    now,
+                    ""
+                });
+                // @formatter:on
+                balanceArgs.add(new Object[] { points, r.getVolunteerId() });
+            }
+        }
+
+        if (participated + unarrived == 0) {
+            throw new IllegalArgumentException("没有需要结算的报名记录");
+        }
+        if (!ledgerArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(LEDGER_SQL, ledgerArgs);
+            jdbcTemplate.batchUpdate(BALANCE_SQL, balanceArgs);
+        }
+
+        kpiAggregateService.recordServiceHoursChange(oldHours, totalHours);
+        kpiAggregateService.recordPointChange(PointChangeType.ACTIVITY_EARN, null, totalPoints);
+        volunteerRadarCache.invalidateAll(volunteerIds);
+        analyticsSnapshot.markStale();
+        // 服务时长汇总在报名那天，结算时这些天通常已经汇总过了
+        statRollupService.rollupAfterCommit(rollupDays);
+
+        // @formatter:off
+        return new AdminActivitySettleResponse(
+            activityId,
+            participated,
+            unarrived,
+            totalHours,
+            totalPoints
+        );
+        // @formatter:on
+    }
+
+    // 按志愿者填写的起止时间计算，没填的一端取活动的时间，不足一小时的部分不计
+    private static int serviceHours(SignupRecord r, Activity activity) {
+        LocalDateTime start = r.getVolunteerStartTime() != null ? r.getVolunteerStartTime() : activity.getStartTime();
+        LocalDateTime end = r.getVolunteerEndTime() != null ? r.getVolunteerEndTime() : activity.getEndTime();
+        if (!end.isAfter(start)) {
+            return 0;
+        }
+        return (int) Duration.between(start, end).toHours();
+    }
+
+    // 锁住参与者的志愿者行并读出当前余额，用来填写每条流水的 balance_after
+    private Map<Long, Double> lockBalances(Iterable<Long> signupIds, Map<Long, SignupRecord> unsettled) {
+        List<Long> volunteerIds = new ArrayList<>();
+        for (Long signupId : signupIds) {
+            volunteerIds.add(unsettled.get(signupId).getVolunteerId());
+        }
+        Collections.sort(volunteerIds);
+
+        Map<Long, Double> balances = new HashMap<>();
+        for (int from = 0; from < volunteerIds.size(); from += BATCH_SIZE) {
+            List<Long> chunk = volunteerIds.subList(from, Math.min(from + BATCH_SIZE, volunteerIds.size()));
+            String sql = "select id, points from volunteer where id in ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") for update";
+            jdbcTemplate.query(sql, rs -> {
+                balances.put(rs.getLong("id"), rs.getDouble("points"));
+            }, chunk.toArray());
+        }
+        return balances;
+    }
+}
@@ -0,0 +1,161 @@
+package com.volunteer.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.volunteer.backend.entity.Activity;
+import com.volunteer.backend.enums.ActivityStatus;
+import com.volunteer.backend.repository.ActivityRepository;
+
+/**
+ * 活动状态的定时推进
+ * <p>
+ * 活动的开始和结束时刻放在一个按时间排序的优先队列里，队首时刻到了才执行两条批量 UPDATE（已结束的改为已完成、已开始的改为进行中），
+ * 状态直接写入数据库，读取活动时不再计算和修改状态。队列只保存未来 horizon 以内的时刻，更远的由定期 reload 补进来；
+ * reload 时先补做停机期间错过的状态变化，所以重启后不会丢失
+ * </p>
+ */
+@Component
+public class ActivityStatusEngine {
+    private static final Logger logger = LoggerFactory.getLogger(ActivityStatusEngine.class);
+
+    private final ActivityRepository activityRepository;
+    private final KpiAggregateService kpiAggregateService;
+    private final ActivityPageCache activityPageCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration horizon;
+
+    // 由 pending 自身的锁保护；重复的时刻无害，到点时只多执行一次无更新的 UPDATE
+    private final PriorityQueue<LocalDateTime> pending = new PriorityQueue<>();
+    private LocalDateTime loadedUntil = LocalDateTime.MIN;
+
+    // @formatter:off
+    public ActivityStatusEngine(
+        ActivityRepository activityRepository,
+        KpiAggregateService kpiAggregateService,
+        ActivityPageCache activityPageCache,
+        PlatformTransactionManager transactionManager,
+        @Value("${activity.status.reload-minutes:60}") long reloadMinutes
+    ) {
+        // @formatter:on
+        this.activityRepository = activityRepository;
+        this.kpiAggregateService = kpiAggregateService;
+        this.activityPageCache = activityPageCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 加载范围取两倍的 reload 间隔，两次 reload 之间不会出现未入队的时刻
+        this.horizon = Duration.ofMinutes(Math.max(reloadMinutes, 1) * 2);
+    }
+
+    // 管理员创建或修改活动时按时间确定状态，规则与批量 UPDATE 一致；已取消的活动不变
+    public static ActivityStatus resolve(ActivityStatus status, LocalDateTime startTime, LocalDateTime endTime,
+            LocalDateTime now) {
+        if (status == ActivityStatus.CANCELLED || startTime == null || endTime == null) {
+            return status;
+        }
+        if (now.isAfter(endTime)) {
+            return ActivityStatus.COMPLETED;
+        }
+        if (!now.isBefore(startTime)) {
+            return ActivityStatus.ONGOING;
+        }
+        // 活动时间被改到未来时重新开放报名
+        if (status == ActivityStatus.COMPLETED || status == ActivityStatus.ONGOING) {
+            return ActivityStatus.RECRUITING;
+        }
+        return status;
+    }
+
+    // 在调用方事务提交后把活动的开始和结束时刻加入队列
+    public void schedule(Activity activity) {
+        LocalDateTime startTime = activity.getStartTime();
+        LocalDateTime endTime = activity.getEndTime();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(startTime, endTime);
+                }
+            });
+        } else {
+            enqueue(startTime, endTime);
+        }
+    }
+
+    private void enqueue(LocalDateTime... instants) {
+        synchronized (pending) {
+            for (LocalDateTime instant : instants) {
+                // 超出加载范围的留给下一次 reload
+                if (instant != null && instant.isBefore(loadedUntil)) {
+                    pending.add(instant);
+                }
+            }
+        }
+    }
+
+    // 由调度器高频调用，队首时刻未到时不访问数据库
+    public int tick() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (pending) {
+            if (pending.isEmpty() || !pending.peek().isBefore(now)) {
+                return 0;
+            }
+            while (!pending.isEmpty() && pending.peek().isBefore(now)) {
+                pending.poll();
+            }
+        }
+        return advance(now);
+    }
+
+    // 把截至 now 应发生的状态变化批量写入数据库，返回更新的活动数
+    public int advance(LocalDateTime now) {
+        Integer changed = transactionTemplate.execute(status -> {
+            int completed = activityRepository.completeEndedActivities(now);
+            int started = activityRepository.startDueActivities(now);
+            kpiAggregateService.recordActivitiesCompleted(completed);
+            if (completed + started > 0) {
+                activityPageCache.invalidate();
+            }
+            return completed + started;
+        });
+        return changed != null ? changed : 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        int changed = advance(now);
+        if (changed > 0) {
+            logger.info("补做活动状态变化，共 {} 个活动", changed);
+        }
+
+        LocalDateTime until = now.plus(horizon);
+        List<LocalDateTime> startTimes = activityRepository.findPendingStartTimes(now, until);
+        List<LocalDateTime> endTimes = activityRepository.findPendingEndTimes(now, until);
+        synchronized (pending) {
+            pending.addAll(startTimes);
+            pending.addAll(endTimes);
+            if (until.isAfter(loadedUntil)) {
+                loadedUntil = until;
+            }
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+}
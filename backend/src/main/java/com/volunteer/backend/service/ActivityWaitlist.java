@@ -0,0 +1,95 @@
+package com.volunteer.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+
+import com.volunteer.backend.entity.SignupRecord;
+import com.volunteer.backend.enums.SignupStatus;
+import com.volunteer.backend.repository.ActivityRepository;
+import com.volunteer.backend.repository.SignupRecordRepository;
+
+/**
+ * 活动候补队列
+ * <p>
+ * 报满之后的报名以 WAITLISTED 状态入库，waitlist_position 由活动上的 waitlist_seq 发号，按序号先进先出。
+ * 队首就是 (activity_id, status, waitlist_position) 索引上的第一条，出队和查询排名都不需要扫描。
+ * 释放名额和递补在调用方的同一个事务里完成。活动行上的条件 UPDATE 只给占位 / 释放排序，不会刷新事务快照，
+ * 所以队首用加锁读取，递补也是只对候补中记录生效的条件 UPDATE，两个同时释放名额的事务不会递补同一个人
+ * </p>
+ */
+@Component
+public class ActivityWaitlist {
+    private final ActivityRepository activityRepository;
+    private final SignupRecordRepository signupRecordRepository;
+    private final VolunteerSignupStatusCache volunteerSignupStatusCache;
+    private final VolunteerRadarCache volunteerRadarCache;
+
+    // @formatter:off
+    public ActivityWaitlist(
+        ActivityRepository activityRepository,
+        SignupRecordRepository signupRecordRepository,
+        VolunteerSignupStatusCache volunteerSignupStatusCache,
+        VolunteerRadarCache volunteerRadarCache
+    ) {
+        this.activityRepository = activityRepository;
+        this.signupRecordRepository = signupRecordRepository;
+        this.volunteerSignupStatusCache = volunteerSignupStatusCache;
+        this.volunteerRadarCache = volunteerRadarCache;
+    }
+    // @formatter:on
+
+    // 候补和已取消 / 已拒绝的报名不占名额
+    public static boolean holdsSeat(SignupStatus status) {
+        return status != SignupStatus.CANCELLED && status != SignupStatus.REJECTED && status != SignupStatus.WAITLISTED;
+    }
+
+    // 把报名记录排到队尾（由调用方保存），返回当前排第几位
+    public long enqueue(SignupRecord record) {
+        activityRepository.advanceWaitlistSeq(record.getActivityId());
+        Long position = activityRepository.findWaitlistSeq(record.getActivityId());
+        record.setStatus(SignupStatus.WAITLISTED);
+        record.setWaitlistPosition(position);
+        return rank(record.getActivityId(), position);
+    }
+
+    public long rank(Long activityId, Long waitlistPosition) {
+        return signupRecordRepository.countByActivityIdAndStatusAndWaitlistPositionLessThan(activityId,
+                SignupStatus.WAITLISTED, waitlistPosition) + 1;
+    }
+
+    // 释放一个名额并让队首递补
+    public void releaseSeat(Long activityId) {
+        activityRepository.releaseSeat(activityId);
+        promote(activityId);
+    }
+
+    // 有空位就按顺序递补，返回递补的人数；上限被调低时可能一个都补不上
+    public int promote(Long activityId) {
+        int promoted = 0;
+        while (true) {
+            Optional<SignupRecord> head = signupRecordRepository.findWaitlistHeadForUpdate(activityId);
+            if (head.isEmpty() || activityRepository.reserveSeat(activityId) == 0) {
+                return promoted;
+            }
+
+            // 持久化上下文里可能有这条记录的旧实体，用条件 UPDATE 改状态，不保存实体
+            SignupRecord record = head.get();
+            if (signupRecordRepository.promoteFromWaitlist(record.getId(), LocalDateTime.now()) == 0) {
+                activityRepository.releaseSeat(activityId);
+                return promoted;
+            }
+
+            volunteerSignupStatusCache.update(record.getVolunteerId(), activityId, SignupStatus.REVIEWING);
+            volunteerRadarCache.invalidate(record.getVolunteerId());
+            promoted++;
+        }
+    }
+
+    public boolean isEmpty(Long activityId) {
+        return signupRecordRepository
+                .findFirstByActivityIdAndStatusOrderByWaitlistPositionAsc(activityId, SignupStatus.WAITLISTED)
+                .isEmpty();
+    }
+}
@@ -1,9 +1,11 @@
 package com.volunteer.backend.service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.springframework.stereotype.Service;
@@ -17,6 +19,8 @@ import com.volunteer.backend.entity.Activity;
 import com.volunteer.backend.entity.SignupRecord;
 import com.volunteer.backend.entity.Volunteer;
 import com.volunteer.backend.enums.ActivityStatus;
+import com.volunteer.backend.enums.ActivityType;
+import com.volunteer.backend.enums.SignupStatus;
 import com.volunteer.backend.repository.ActivityRepository;
 import com.volunteer.backend.repository.SignupRecordRepository;
 import com.volunteer.backend.repository.VolunteerRepository;
@@ -28,19 +32,53 @@ public class AdminActivityService {
     private final ActivityRepository activityRepository;
     private final VolunteerRepository volunteerRepository;
     private final SignupRecordRepository signupRecordRepository;
+    private final KpiAggregateService kpiAggregateService;
+    private final VolunteerRadarCache volunteerRadarCache;
+    private final AnalyticsSnapshot analyticsSnapshot;
+    private final ActivitySearchIndex activitySearchIndex;
+    private final ActivityStatusEngine activityStatusEngine;
+    private final HotActivityRanking hotActivityRanking;
+    private final ActivityPageCache activityPageCache;
+    private final VolunteerSignupStatusCache volunteerSignupStatusCache;
+    private final FlashSignupService flashSignupService;
+    private final ActivityWaitlist activityWaitlist;
+    private final StatRollupService statRollupService;
 
     // @formatter:off
     public AdminActivityService(
         ActivityRepository activityRepository,
         VolunteerRepository volunteerRepository,
-        SignupRecordRepository signupRecordRepository
+        SignupRecordRepository signupRecordRepository,
+        KpiAggregateService kpiAggregateService,
+        VolunteerRadarCache volunteerRadarCache,
+        AnalyticsSnapshot analyticsSnapshot,
+        ActivitySearchIndex activitySearchIndex,
+        ActivityStatusEngine activityStatusEngine,
+        HotActivityRanking hotActivityRanking,
+        ActivityPageCache activityPageCache,
+        VolunteerSignupStatusCache volunteerSignupStatusCache,
+        FlashSignupService flashSignupService,
+        ActivityWaitlist activityWaitlist,
+        StatRollupService statRollupService
     ) {
         this.activityRepository = activityRepository;
         this.volunteerRepository = volunteerRepository;
         this.signupRecordRepository = signupRecordRepository;
+        this.kpiAggregateService = kpiAggregateService;
+        this.volunteerRadarCache = volunteerRadarCache;
+        this.analyticsSnapshot = analyticsSnapshot;
+        this.activitySearchIndex = activitySearchIndex;
+        this.activityStatusEngine = activityStatusEngine;
+        this.hotActivityRanking = hotActivityRanking;
+        this.activityPageCache = activityPageCache;
+        this.volunteerSignupStatusCache = volunteerSignupStatusCache;
+        this.flashSignupService = flashSignupService;
+        this.activityWaitlist = activityWaitlist;
+        this.statRollupService = statRollupService;
     }
     // @formatter:on
 
+    @Transactional
     public Activity importActivity(AdminActivityImportRequest request) throws IllegalArgumentException {
         if (request == null) {
             throw new IllegalArgumentException("活动导入请求不能为空");
@@ -92,7 +130,13 @@ public class AdminActivityService {
         );
         // @formatter:on
 
-        activity.setStatus(request.getStatus() == null ? ActivityStatus.RECRUITING : request.getStatus());
+        activity.setFlashMode(Boolean.TRUE.equals(request.getFlashMode()));
+        activity.setLotteryMode(Boolean.TRUE.equals(request.getLotteryMode()));
+        activity.setLotteryDrawTime(request.getLotteryDrawTime());
+        validateLottery(activity);
+        ActivityStatus status = request.getStatus() == null ? ActivityStatus.RECRUITING : request.getStatus();
+        activity.setStatus(ActivityStatusEngine.resolve(status, activity.getStartTime(), activity.getEndTime(),
+                LocalDateTime.now()));
 
         String desc = request.getDescription();
         if (desc.trim().isEmpty()) {
@@ -102,15 +146,31 @@ public class AdminActivityService {
         }
         activity.setDescription(desc);
 
-        return activityRepository.save(activity);
+        Activity saved = activityRepository.save(activity);
+        kpiAggregateService.recordActivityStatusChange(null, saved.getStatus());
+        // 补录过去的活动时，开始那天的活动数已经汇总过了
+        statRollupService.rollupAfterCommit(List.of(saved.getStartTime().toLocalDate()));
+        activitySearchIndex.put(saved);
+        activityStatusEngine.schedule(saved);
+        hotActivityRanking.refresh(saved.getId());
+        activityPageCache.invalidate();
+        return saved;
     }
 
+    @Transactional
     public Activity updateActivity(Long activityId, AdminActivityUpdateRequest request) {
         Optional<Activity> a = activityRepository.findById(activityId);
         if (a.isEmpty()) {
             throw new IllegalArgumentException("活动不存在");
         }
         Activity activity = a.get();
+        ActivityStatus oldStatus = activity.getStatus();
+        ActivityType oldType = activity.getType();
+        LocalDateTime oldStartTime = activity.getStartTime();
+        Integer oldMaxParticipants = activity.getMaxParticipants();
+        boolean oldFlashMode = Boolean.TRUE.equals(activity.getFlashMode());
+        boolean oldLotteryMode = Boolean.TRUE.equals(activity.getLotteryMode());
+        LocalDateTime oldLotteryDrawTime = activity.getLotteryDrawTime();
 
         if (request.getTitle() != null && !request.getTitle().trim().isEmpty()) {
             activity.setTitle(request.getTitle().trim());
@@ -149,27 +209,116 @@ public class AdminActivityService {
             activity.setStatus(request.getStatus());
         }
 
+        if (request.getFlashMode() != null) {
+            // 抢报模式不维护候补队列，切换前候补必须已经处理完
+            if (request.getFlashMode() && !oldFlashMode && !activityWaitlist.isEmpty(activityId)) {
+                throw new IllegalArgumentException("该活动还有候补报名，不能切换为抢报模式");
+            }
+            activity.setFlashMode(request.getFlashMode());
+        }
+
+        if (request.getLotteryMode() != null) {
+            activity.setLotteryMode(request.getLotteryMode());
+        }
+
+        if (request.getLotteryDrawTime() != null) {
+            activity.setLotteryDrawTime(request.getLotteryDrawTime());
+        }
+
         if (activity.getStartTime() != null && activity.getEndTime() != null) {
             if (activity.getStartTime().isAfter(activity.getEndTime())) {
                 throw new IllegalArgumentException("活动结束时间必须晚于开始时间");
             }
         }
 
-        return activityRepository.save(activity);
+        // 抽签模式下报名不占名额，已有报名时切换模式会让人数对不上
+        boolean lotteryModeChanged = oldLotteryMode != Boolean.TRUE.equals(activity.getLotteryMode());
+        if (lotteryModeChanged || !Objects.equals(oldLotteryDrawTime, activity.getLotteryDrawTime())) {
+            if (activity.getLotterySeed() != null) {
+                throw new IllegalArgumentException("该活动已经抽签，不能修改抽签设置");
+            }
+            if (lotteryModeChanged
+                    && signupRecordRepository.existsByActivityIdAndStatusNot(activityId, SignupStatus.CANCELLED)) {
+                throw new IllegalArgumentException("该活动已有报名，不能切换抽签模式");
+            }
+        }
+        validateLottery(activity);
+
+        activity.setStatus(ActivityStatusEngine.resolve(activity.getStatus(), activity.getStartTime(),
+                activity.getEndTime(), LocalDateTime.now()));
+
+        Activity saved = activityRepository.save(activity);
+        kpiAggregateService.recordActivityStatusChange(oldStatus, saved.getStatus());
+        // 活动数按开始那天、报名数和时长按报名那天分类型汇总，类型或开始时间变了要重算这些天
+        List<LocalDate> rollupDays = new ArrayList<>();
+        if (oldType != saved.getType() || !Objects.equals(oldStartTime, saved.getStartTime())) {
+            rollupDays.add(oldStartTime.toLocalDate());
+            rollupDays.add(saved.getStartTime().toLocalDate());
+        }
+        if (oldType != saved.getType()) {
+            rollupDays.addAll(signupDays(signupRecordRepository.findByActivityIdOrderBySignupTimeDesc(activityId)));
+        }
+        statRollupService.rollupAfterCommit(rollupDays);
+        activitySearchIndex.put(saved);
+        activityStatusEngine.schedule(saved);
+        // 上限调高后按顺序递补候补
+        if (!Boolean.TRUE.equals(saved.getFlashMode()) && !LotteryDrawService.isPending(saved)) {
+            activityWaitlist.promote(activityId);
+        }
+        hotActivityRanking.refresh(activityId);
+        activityPageCache.invalidate();
+        if (oldFlashMode && !Boolean.TRUE.equals(saved.getFlashMode())) {
+            flashSignupService.discard(activityId);
+        } else {
+            flashSignupService.resized(activityId, oldMaxParticipants, saved.getMaxParticipants());
+        }
+        // 活动类型、时间和每小时积分都会影响参与者的雷达图
+        volunteerRadarCache.invalidateAll(signupRecordRepository.findVolunteerIdsByActivityId(activityId));
+        return saved;
     }
 
     @Transactional
     public void deleteActivity(Long activityId) {
-        if (!activityRepository.existsById(activityId)) {
+        Optional<Activity> a = activityRepository.findById(activityId);
+        if (a.isEmpty()) {
             throw new IllegalArgumentException("活动不存在");
         }
+        Activity activity = a.get();
+
+        // 抢报模式下先把队列中的报名写完，下面才能一并删除
+        if (Boolean.TRUE.equals(activity.getFlashMode())) {
+            flashSignupService.flush();
+            flashSignupService.discard(activityId);
+        }
 
         List<SignupRecord> signupRecords = signupRecordRepository.findByActivityIdOrderBySignupTimeDesc(activityId);
         for (SignupRecord record : signupRecords) {
+            kpiAggregateService.recordServiceHoursChange(record.getActualHours(), null);
+            volunteerRadarCache.invalidate(record.getVolunteerId());
             signupRecordRepository.delete(record);
         }
+        if (!signupRecords.isEmpty()) {
+            analyticsSnapshot.markStale();
+        }
+        List<LocalDate> rollupDays = signupDays(signupRecords);
+        rollupDays.add(activity.getStartTime().toLocalDate());
+        statRollupService.rollupAfterCommit(rollupDays);
 
+        kpiAggregateService.recordActivityStatusChange(activity.getStatus(), null);
         activityRepository.deleteById(activityId);
+        activitySearchIndex.remove(activityId);
+        hotActivityRanking.remove(activityId);
+        activityPageCache.invalidate();
+    }
+
+    public void rebuildSearchIndex() {
+        activitySearchIndex.rebuild();
+    }
+
+    public void reloadActivityStatus() {
+        activityStatusEngine.reload();
+        hotActivityRanking.rebuild();
+        activityPageCache.invalidate();
     }
 
     public List<AdminSignupRecordResponse> getSignupRecords(Long activityId) {
@@ -237,7 +386,21 @@ public class AdminActivityService {
         }
 
         if (request.getStatus() != null) {
+            SignupStatus oldStatus = signupRecord.getStatus();
+            if (request.getStatus() == SignupStatus.WAITLISTED && oldStatus != SignupStatus.WAITLISTED) {
+                throw new IllegalArgumentException("候补状态由系统维护，不能手动设置");
+            }
             signupRecord.setStatus(request.getStatus());
+            if (request.getStatus() != SignupStatus.WAITLISTED) {
+                signupRecord.setWaitlistPosition(null);
+            }
+            if (Boolean.TRUE.equals(a.get().getFlashMode())) {
+                flashSignupService.signupStatusChanged(activityId, signupRecord.getVolunteerId(), signupRecord.getId(),
+                        oldStatus, request.getStatus());
+            } else if (!LotteryDrawService.isPending(a.get())) {
+                updateSeat(activityId, oldStatus, request.getStatus());
+            }
+            volunteerSignupStatusCache.update(signupRecord.getVolunteerId(), activityId, request.getStatus());
         }
 
         if (request.getVolunteerStartTime() != null) {
@@ -249,6 +412,9 @@ public class AdminActivityService {
         }
 
         if (request.getActualHours() != null) {
+            kpiAggregateService.recordServiceHoursChange(signupRecord.getActualHours(), request.getActualHours());
+            // 服务时长汇总在报名那天
+            statRollupService.rollupAfterCommit(List.of(signupRecord.getSignupTime().toLocalDate()));
             signupRecord.setActualHours(request.getActualHours());
         }
 
@@ -261,7 +427,49 @@ public class AdminActivityService {
         }
 
         signupRecord.setUpdateTime(LocalDateTime.now());
+        volunteerRadarCache.invalidate(signupRecord.getVolunteerId());
 
         return signupRecordRepository.save(signupRecord);
     }
+
+    private List<LocalDate> signupDays(List<SignupRecord> records) {
+        List<LocalDate> days = new ArrayList<>();
+        for (SignupRecord record : records) {
+            days.add(record.getSignupTime().toLocalDate());
+        }
+        return days;
+    }
+
+    // 抽签模式需要抽签时间，且抽签前报名不占名额，和抢报模式不能同时开启
+    private void validateLottery(Activity activity) {
+        if (!Boolean.TRUE.equals(activity.getLotteryMode())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(activity.getFlashMode())) {
+            throw new IllegalArgumentException("抽签模式和抢报模式不能同时开启");
+        }
+        if (activity.getLotteryDrawTime() == null) {
+            throw new IllegalArgumentException("抽签模式必须设置抽签时间");
+        }
+        if (activity.getLotterySeed() == null && activity.getLotteryDrawTime().isAfter(activity.getStartTime())) {
+            throw new IllegalArgumentException("抽签时间不能晚于活动开始时间");
+        }
+    }
+
+    // 报名状态在占名额 / 不占名额之间变化时同步人数，拒绝或取消空出的名额交给候补队首
+    private void updateSeat(Long activityId, SignupStatus oldStatus, SignupStatus newStatus) {
+        boolean held = ActivityWaitlist.holdsSeat(oldStatus);
+        boolean holds = ActivityWaitlist.holdsSeat(newStatus);
+        if (held == holds) {
+            return;
+        }
+
+        if (held) {
+            activityWaitlist.releaseSeat(activityId);
+        } else if (activityRepository.reserveSeat(activityId) == 0) {
+            throw new IllegalArgumentException("活动报名人数已满");
+        }
+        hotActivityRanking.refresh(activityId);
+        activityPageCache.invalidate();
+    }
 }
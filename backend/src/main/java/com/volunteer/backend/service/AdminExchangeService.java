@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -13,6 +14,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.volunteer.backend.dto.PageCursor;
 import com.volunteer.backend.dto.response.AdminExchangeRecordResponse;
 import com.volunteer.backend.dto.response.PageResponse;
 import com.volunteer.backend.entity.ExchangeRecord;
@@ -35,19 +37,28 @@ public class AdminExchangeService {
     private final VolunteerRepository volunteerRepository;
     private final ProductRepository productRepository;
     private final PointChangeRecordRepository pointChangeRecordRepository;
+    private final KpiAggregateService kpiAggregateService;
+    private final VolunteerRadarCache volunteerRadarCache;
+    private final AnalyticsSnapshot analyticsSnapshot;
 
     // @formatter:off
     public AdminExchangeService(
         ExchangeRecordRepository exchangeRecordRepository,
         VolunteerRepository volunteerRepository,
         ProductRepository productRepository,
-        PointChangeRecordRepository pointChangeRecordRepository
+        PointChangeRecordRepository pointChangeRecordRepository,
+        KpiAggregateService kpiAggregateService,
+        VolunteerRadarCache volunteerRadarCache,
+        AnalyticsSnapshot analyticsSnapshot
     ) {
             // @formatter:on
         this.exchangeRecordRepository = exchangeRecordRepository;
         this.volunteerRepository = volunteerRepository;
         this.productRepository = productRepository;
         this.pointChangeRecordRepository = pointChangeRecordRepository;
+        this.kpiAggregateService = kpiAggregateService;
+        this.volunteerRadarCache = volunteerRadarCache;
+        this.analyticsSnapshot = analyticsSnapshot;
     }
     
     // @formatter:off
@@ -73,7 +84,9 @@ public class AdminExchangeService {
     }
     // @formatter:on
 
-    public PageResponse<AdminExchangeRecordResponse> getExchangeRecords(String status, int page, int size) {
+    // cursor 不为 null 时走游标分页（空字符串表示第一页），忽略 page
+    public PageResponse<AdminExchangeRecordResponse> getExchangeRecords(String status, int page, int size,
+            String cursor) {
         if (page < 0) {
             throw new IllegalArgumentException("页码不能小于0");
         }
@@ -81,22 +94,61 @@ public class AdminExchangeService {
             throw new IllegalArgumentException("每页记录数必须大于0");
         }
 
+        ExchangeStatus exchangeStatus = null;
+        if (status != null && !status.isBlank() && !"ALL".equalsIgnoreCase(status)) {
+            try {
+                exchangeStatus = ExchangeStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("未知的兑换状态: " + status);
+            }
+        }
+
+        if (cursor != null) {
+            PageCursor after = PageCursor.decode(cursor);
+            // 多取一条用来判断是否还有下一页
+            // @formatter:off
+            List<ExchangeRecord> records = exchangeRecordRepository.seekByStatus(
+                exchangeStatus,
+                after != null ? after.getTime() : null,
+                after != null ? after.getId() : null,
+                Limit.of(size + 1)
+            );
+            // @formatter:on
+
+            String nextCursor = null;
+            if (records.size() > size) {
+                records = records.subList(0, size);
+                ExchangeRecord last = records.get(size - 1);
+                nextCursor = new PageCursor(last.getOrderTime(), last.getId()).encode();
+            }
+            return new PageResponse<>(buildResponses(records), size, nextCursor);
+        }
+
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "orderTime"));
         Page<ExchangeRecord> recordPage;
 
-        if (status == null || status.isBlank() || "ALL".equalsIgnoreCase(status)) {
+        if (exchangeStatus == null) {
             recordPage = exchangeRecordRepository.findAll(pageable);
         } else {
-            try {
-                ExchangeStatus exchangeStatus = ExchangeStatus.valueOf(status.toUpperCase());
-                recordPage = exchangeRecordRepository.findByStatus(exchangeStatus, pageable);
-            } catch (IllegalArgumentException e) {
-                throw new IllegalArgumentException("未知的兑换状态: " + status);
-            }
+            recordPage = exchangeRecordRepository.findByStatus(exchangeStatus, pageable);
         }
 
+        List<AdminExchangeRecordResponse> content = buildResponses(recordPage.getContent());
+
+        // @formatter:off
+        return new PageResponse<>(
+            content,
+            recordPage.getNumber(),
+            recordPage.getSize(),
+            recordPage.getTotalElements(),
+            recordPage.getTotalPages()
+        );
+        // @formatter:on
+    }
+
+    private List<AdminExchangeRecordResponse> buildResponses(List<ExchangeRecord> records) {
         List<AdminExchangeRecordResponse> content = new ArrayList<>();
-        for (ExchangeRecord record : recordPage.getContent()) {
+        for (ExchangeRecord record : records) {
             String volunteerName = "";
             Optional<Volunteer> volunteer = volunteerRepository.findById(record.getVolunteerId());
             if (volunteer.isPresent()) {
@@ -113,16 +165,7 @@ public class AdminExchangeService {
 
             content.add(buildResponse(record, volunteerName, productName, productPrice));
         }
-
-        // @formatter:off
-        return new PageResponse<>(
-            content,
-            recordPage.getNumber(),
-            recordPage.getSize(),
-            recordPage.getTotalElements(),
-            recordPage.getTotalPages()
-        );
-        // @formatter:on
+        return content;
     }
 
     @Transactional
@@ -195,6 +238,9 @@ public class AdminExchangeService {
         );
         // @formatter:on
         pointChangeRecordRepository.save(refundRecord);
+        analyticsSnapshot.appendPointChange(refundRecord);
+        kpiAggregateService.recordPointChange(refundRecord.getChangeType(), null, refundRecord.getChangePoints());
+        volunteerRadarCache.invalidate(refundRecord.getVolunteerId());
 
         // 更新志愿者积分
         Optional<Volunteer> v = volunteerRepository.findByIdAndDeletedFalse(record.getVolunteerId());
@@ -301,6 +347,9 @@ public class AdminExchangeService {
                     PointChangeType.ADMIN_ADJUST, "兑换记录编辑，积分调整: " + (pointDiff > 0 ? "增加" : "减少") + Math.abs(pointDiff),
                     record.getId(), RelatedRecordType.EXCHANGE);
             pointChangeRecordRepository.save(adjustRecord);
+            analyticsSnapshot.appendPointChange(adjustRecord);
+            kpiAggregateService.recordPointChange(adjustRecord.getChangeType(), null, adjustRecord.getChangePoints());
+            volunteerRadarCache.invalidate(adjustRecord.getVolunteerId());
         }
 
         String volunteerName = "";
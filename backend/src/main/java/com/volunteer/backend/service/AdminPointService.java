@@ -5,12 +5,15 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.volunteer.backend.dto.PageCursor;
 import com.volunteer.backend.dto.request.AdminPointAdjustRequest;
 import com.volunteer.backend.dto.request.AdminPointUpdateRequest;
 import com.volunteer.backend.dto.response.AdminPointRecordResponse;
@@ -27,15 +30,27 @@ public class AdminPointService {
 
     private final PointChangeRecordRepository pointChangeRecordRepository;
     private final VolunteerRepository volunteerRepository;
+    private final KpiAggregateService kpiAggregateService;
+    private final VolunteerRadarCache volunteerRadarCache;
+    private final AnalyticsSnapshot analyticsSnapshot;
+    private final ApproximateCountCache approximateCountCache;
 
     // @formatter:off
     public AdminPointService(
         PointChangeRecordRepository pointChangeRecordRepository,
-        VolunteerRepository volunteerRepository
+        VolunteerRepository volunteerRepository,
+        KpiAggregateService kpiAggregateService,
+        VolunteerRadarCache volunteerRadarCache,
+        AnalyticsSnapshot analyticsSnapshot,
+        ApproximateCountCache approximateCountCache
     ) {
         // @formatter:on
         this.pointChangeRecordRepository = pointChangeRecordRepository;
         this.volunteerRepository = volunteerRepository;
+        this.kpiAggregateService = kpiAggregateService;
+        this.volunteerRadarCache = volunteerRadarCache;
+        this.analyticsSnapshot = analyticsSnapshot;
+        this.approximateCountCache = approximateCountCache;
     }
 
     private AdminPointRecordResponse buildResponse(PointChangeRecord record, String volunteerName) {
@@ -56,7 +71,17 @@ public class AdminPointService {
         // @formatter:on
     }
 
-    public PageResponse<AdminPointRecordResponse> getPointRecords(String type, String keyword, int page, int size) {
+    // cursor 不为 null 时走游标分页（空字符串表示第一页），忽略 page；slice 为 true 时不做 COUNT，总数取后台缓存的近似值
+    // @formatter:off
+    public PageResponse<AdminPointRecordResponse> getPointRecords(
+        String type,
+        String keyword,
+        int page,
+        int size,
+        String cursor,
+        boolean slice
+    ) {
+        // @formatter:on
         if (page < 0) {
             throw new IllegalArgumentException("页码不能小于0");
         }
@@ -64,36 +89,85 @@ public class AdminPointService {
             throw new IllegalArgumentException("每页记录数必须大于0");
         }
 
+        PointChangeType changeType = parseChangeType(type);
+        String trimmedKeyword = (keyword != null) ? keyword.trim() : "";
+
+        if (cursor != null) {
+            return seekPointRecords(changeType, trimmedKeyword, size, PageCursor.decode(cursor));
+        }
+
         Pageable pageable = PageRequest.of(page, size);
-        Page<PointChangeRecord> recordPage;
 
-        String trimmedKeyword = (keyword != null) ? keyword.trim() : "";
+        if (slice) {
+            Slice<PointChangeRecord> recordSlice = pointChangeRecordRepository.sliceRecords(changeType,
+                    trimmedKeyword.isEmpty() ? null : trimmedKeyword, pageable);
+            Long total = approximateCountCache.get("admin-points:" + changeType + ":" + trimmedKeyword,
+                    () -> findPointRecordPage(changeType, trimmedKeyword, PageRequest.of(0, 1)).getTotalElements());
+            return new PageResponse<>(buildResponses(recordSlice.getContent()), page, size, recordSlice.hasNext(),
+                    total);
+        }
 
+        Page<PointChangeRecord> recordPage = findPointRecordPage(changeType, trimmedKeyword, pageable);
+
+        List<AdminPointRecordResponse> content = buildResponses(recordPage.getContent());
+
+        return new PageResponse<>(content, recordPage.getNumber(), recordPage.getSize(), recordPage.getTotalElements(),
+                recordPage.getTotalPages());
+    }
+
+    // type 为空或 ALL 时返回 null，表示不按类型过滤
+    private PointChangeType parseChangeType(String type) {
         if (type == null || type.isBlank() || "ALL".equalsIgnoreCase(type)) {
-            if (trimmedKeyword.isEmpty()) {
-                recordPage = pointChangeRecordRepository.findAllByOrderByChangeTimeDesc(pageable);
-            } else {
-                recordPage = pointChangeRecordRepository.findByVolunteerNameKeywordOrderByChangeTimeDesc(trimmedKeyword,
-                        pageable);
-            }
-        } else {
-            try {
-                PointChangeType changeType = PointChangeType.valueOf(type.toUpperCase());
-                if (trimmedKeyword.isEmpty()) {
-                    recordPage = pointChangeRecordRepository.findByChangeTypeOrderByChangeTimeDesc(changeType,
-                            pageable);
-                } else {
-                    recordPage = pointChangeRecordRepository
-                            .findByChangeTypeAndVolunteerNameKeywordOrderByChangeTimeDesc(changeType, trimmedKeyword,
-                                    pageable);
-                }
-            } catch (IllegalArgumentException e) {
-                throw new IllegalArgumentException("未知的积分变动类型: " + type);
+            return null;
+        }
+        try {
+            return PointChangeType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("未知的积分变动类型: " + type);
+        }
+    }
+
+    private Page<PointChangeRecord> findPointRecordPage(PointChangeType changeType, String keyword,
+            Pageable pageable) {
+        if (changeType == null) {
+            if (keyword.isEmpty()) {
+                return pointChangeRecordRepository.findAllByOrderByChangeTimeDesc(pageable);
             }
+            return pointChangeRecordRepository.findByVolunteerNameKeywordOrderByChangeTimeDesc(keyword, pageable);
+        }
+        if (keyword.isEmpty()) {
+            return pointChangeRecordRepository.findByChangeTypeOrderByChangeTimeDesc(changeType, pageable);
+        }
+        return pointChangeRecordRepository.findByChangeTypeAndVolunteerNameKeywordOrderByChangeTimeDesc(changeType,
+                keyword, pageable);
+    }
+
+    private PageResponse<AdminPointRecordResponse> seekPointRecords(PointChangeType changeType, String keyword,
+            int size, PageCursor after) {
+        // 多取一条用来判断是否还有下一页
+        // @formatter:off
+        List<PointChangeRecord> records = pointChangeRecordRepository.seekRecords(
+            changeType,
+            keyword.isEmpty() ? null : keyword,
+            after != null ? after.getTime() : null,
+            after != null ? after.getId() : null,
+            Limit.of(size + 1)
+        );
+        // @formatter:on
+
+        String nextCursor = null;
+        if (records.size() > size) {
+            records = records.subList(0, size);
+            PointChangeRecord last = records.get(size - 1);
+            nextCursor = new PageCursor(last.getChangeTime(), last.getId()).encode();
         }
 
+        return new PageResponse<>(buildResponses(records), size, nextCursor);
+    }
+
+    private List<AdminPointRecordResponse> buildResponses(List<PointChangeRecord> records) {
         List<AdminPointRecordResponse> content = new ArrayList<>();
-        for (PointChangeRecord record : recordPage.getContent()) {
+        for (PointChangeRecord record : records) {
             String volunteerName = "";
             Optional<Volunteer> volunteer = volunteerRepository.findById(record.getVolunteerId());
             if (volunteer.isPresent()) {
@@ -101,9 +175,7 @@ public class AdminPointService {
             }
             content.add(buildResponse(record, volunteerName));
         }
-
-        return new PageResponse<>(content, recordPage.getNumber(), recordPage.getSize(), recordPage.getTotalElements(),
-                recordPage.getTotalPages());
+        return content;
     }
 
     @Transactional
@@ -157,6 +229,9 @@ public class AdminPointService {
         record.setBalanceAfter(newBalance);
 
         PointChangeRecord saved = pointChangeRecordRepository.save(record);
+        kpiAggregateService.recordPointChange(saved.getChangeType(), null, saved.getChangePoints());
+        volunteerRadarCache.invalidate(saved.getVolunteerId());
+        analyticsSnapshot.appendPointChange(saved);
 
         volunteer.setPoints(newBalance);
         volunteerRepository.save(volunteer);
@@ -192,6 +267,9 @@ public class AdminPointService {
 
             record.setChangePoints(newChangePoints);
             record.setBalanceAfter(newBalance);
+            kpiAggregateService.recordPointChange(record.getChangeType(), oldChangePoints, newChangePoints);
+            volunteerRadarCache.invalidate(record.getVolunteerId());
+            analyticsSnapshot.markStale();
 
             volunteer.setPoints(newBalance);
             volunteerRepository.save(volunteer);
@@ -249,6 +327,9 @@ public class AdminPointService {
         revertRecord.setBalanceAfter(newBalance);
 
         pointChangeRecordRepository.save(revertRecord);
+        analyticsSnapshot.appendPointChange(revertRecord);
+        kpiAggregateService.recordPointChange(revertRecord.getChangeType(), null, revertRecord.getChangePoints());
+        volunteerRadarCache.invalidate(revertRecord.getVolunteerId());
 
         volunteer.setPoints(newBalance);
         volunteerRepository.save(volunteer);
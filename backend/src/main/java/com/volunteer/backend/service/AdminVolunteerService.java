@@ -24,11 +24,19 @@ import com.volunteer.backend.repository.VolunteerRepository;
 public class AdminVolunteerService {
     private final VolunteerRepository volunteerRepository;
     private final UserRepository userRepository;
-
-    public AdminVolunteerService(VolunteerRepository volunteerRepository, UserRepository userRepository) {
+    private final VolunteerSignupStatusCache volunteerSignupStatusCache;
+
+    // @formatter:off
+    public AdminVolunteerService(
+        VolunteerRepository volunteerRepository,
+        UserRepository userRepository,
+        VolunteerSignupStatusCache volunteerSignupStatusCache
+    ) {
         this.volunteerRepository = volunteerRepository;
         this.userRepository = userRepository;
+        this.volunteerSignupStatusCache = volunteerSignupStatusCache;
     }
+    // @formatter:on
 
     private AdminVolunteerResponse buildResponse(Volunteer volunteer) {
         // @formatter:off
@@ -166,6 +174,8 @@ public class AdminVolunteerService {
         }
 
         Volunteer saved = volunteerRepository.save(volunteer);
+        // 认证状态决定活动列表是否显示报名状态
+        volunteerSignupStatusCache.invalidateUser(saved.getUserId());
         return buildResponse(saved);
     }
 }
\ No newline at end of file
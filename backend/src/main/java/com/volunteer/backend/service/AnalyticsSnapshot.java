@@ -0,0 +1,384 @@
+package com.volunteer.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.volunteer.backend.dto.PointSnapshotRow;
+import com.volunteer.backend.dto.SignupSnapshotRow;
+import com.volunteer.backend.entity.PointChangeRecord;
+import com.volunteer.backend.entity.SignupRecord;
+import com.volunteer.backend.enums.PointChangeType;
+import com.volunteer.backend.repository.PointChangeRecordRepository;
+import com.volunteer.backend.repository.SignupRecordRepository;
+
+/**
+ * 看板用的列式内存快照
+ * <p>
+ * 报名记录和积分流水各存成几组平行的基本类型数组，首次读取时从数据库流式加载一次，之后新增的记录在事务提交后追加；
+ * 修改或删除已有记录时只把快照标记为过期，下次读取时重新加载
+ * </p>
+ * <p>
+ * 追加只在持锁时进行，读取方拿到的是某一时刻的 (数组, 长度) 视图，追加写的是视图长度之外的槽位，所以读取不需要加锁
+ * </p>
+ * <p>
+ * 过期用代数表示：标记过期时代数加一，加载只把开始加载时读到的那一代记为已加载，加载期间的标记不会丢。
+ * 记录的 id 在插入时分配而不是提交时，不能用 id 判断是否已在快照里；追加在登记时记下加载序号，
+ * 登记到提交之间有过加载就无法确定那次加载是否读到了这条记录，直接标记过期
+ * </p>
+ */
+@Component
+public class AnalyticsSnapshot {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int POINT_TYPE_COUNT = PointChangeType.values().length;
+
+    // 月份统一编码为 年 × 12 + 月 - 1，按年过滤只需比较区间
+    private static int monthIndex(LocalDateTime time) {
+        return time.getYear() * 12 + time.getMonthValue() - 1;
+    }
+
+    // 积分按分存成 long，避免累加时的浮点误差
+    private static long toFixed(double points) {
+        return Math.round(points * 100);
+    }
+
+    private static final class SignupColumns {
+        final long[] ids;
+        final long[] volunteerIds;
+        final int[] epochDays;
+        final int[] monthIndexes;
+        final int size;
+
+        SignupColumns(long[] ids, long[] volunteerIds, int[] epochDays, int[] monthIndexes, int size) {
+            this.ids = ids;
+            this.volunteerIds = volunteerIds;
+            this.epochDays = epochDays;
+            this.monthIndexes = monthIndexes;
+            this.size = size;
+        }
+
+        static SignupColumns empty() {
+            // @formatter:off
+            return new SignupColumns(
+                new long[INITIAL_CAPACITY],
+                new long[INITIAL_CAPACITY],
+                new int[INITIAL_CAPACITY],
+                new int[INITIAL_CAPACITY],
+                0
+            );
+            // @formatter:on
+        }
+
+        SignupColumns append(long id, long volunteerId, LocalDateTime signupTime) {
+            SignupColumns c = this;
+            if (size == ids.length) {
+                int capacity = ids.length * 2;
+                // @formatter:off
+                c = new SignupColumns(
+                    Arrays.copyOf(ids, capacity),
+                    Arrays.copyOf(volunteerIds, capacity),
+                    Arrays.copyOf(epochDays, capacity),
+                    Arrays.copyOf(monthIndexes, capacity),
+                    size
+                );
+                // @formatter:on
+            }
+            c.ids[size] = id;
+            c.volunteerIds[size] = volunteerId;
+            c.epochDays[size] = (int) signupTime.toLocalDate().toEpochDay();
+            c.monthIndexes[size] = monthIndex(signupTime);
+            return new SignupColumns(c.ids, c.volunteerIds, c.epochDays, c.monthIndexes, size + 1);
+        }
+    }
+
+    private static final class PointColumns {
+        final long[] ids;
+        final int[] changeTypes;
+        final int[] monthIndexes;
+        final long[] pointsFixed;
+        final int size;
+
+        PointColumns(long[] ids, int[] changeTypes, int[] monthIndexes, long[] pointsFixed, int size) {
+            this.ids = ids;
+            this.changeTypes = changeTypes;
+            this.monthIndexes = monthIndexes;
+            this.pointsFixed = pointsFixed;
+            this.size = size;
+        }
+
+        static PointColumns empty() {
+            // @formatter:off
+            return new PointColumns(
+                new long[INITIAL_CAPACITY],
+                new int[INITIAL_CAPACITY],
+                new int[INITIAL_CAPACITY],
+                new long[INITIAL_CAPACITY],
+                0
+            );
+            // @formatter:on
+        }
+
+        PointColumns append(long id, PointChangeType changeType, double points, LocalDateTime changeTime) {
+            PointColumns c = this;
+            if (size == ids.length) {
+                int capacity = ids.length * 2;
+                // @formatter:off
+                c = new PointColumns(
+                    Arrays.copyOf(ids, capacity),
+                    Arrays.copyOf(changeTypes, capacity),
+                    Arrays.copyOf(monthIndexes, capacity),
+                    Arrays.copyOf(pointsFixed, capacity),
+                    size
+                );
+                // @formatter:on
+            }
+            c.ids[size] = id;
+            c.changeTypes[size] = changeType.ordinal();
+            c.monthIndexes[size] = monthIndex(changeTime);
+            c.pointsFixed[size] = toFixed(points);
+            return new PointColumns(c.ids, c.changeTypes, c.monthIndexes, c.pointsFixed, size + 1);
+        }
+    }
+
+    private final SignupRecordRepository signupRecordRepository;
+    private final PointChangeRecordRepository pointChangeRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    private final Object lock = new Object();
+    private volatile SignupColumns signups;
+    private volatile PointColumns points;
+    // 数据的代数，标记过期时加一；loadedGeneration 是当前快照对应的代数
+    private final AtomicLong generation = new AtomicLong(1);
+    private volatile long loadedGeneration;
+    // 加载序号，开始和结束加载时各加一，奇数表示正在加载；只在持锁时修改
+    private volatile long loadSeq;
+
+    // @formatter:off
+    public AnalyticsSnapshot(
+        SignupRecordRepository signupRecordRepository,
+        PointChangeRecordRepository pointChangeRecordRepository,
+        PlatformTransactionManager transactionManager,
+        @Value("${statistics.snapshot.enabled:false}") boolean enabled
+    ) {
+        // @formatter:on
+        this.signupRecordRepository = signupRecordRepository;
+        this.pointChangeRecordRepository = pointChangeRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void appendSignup(SignupRecord record) {
+        if (!enabled || record.getSignupTime() == null) {
+            return;
+        }
+        long seq = loadSeq;
+        afterCommit(() -> {
+            synchronized (lock) {
+                if (appendable(seq)) {
+                    signups = signups.append(record.getId(), record.getVolunteerId(), record.getSignupTime());
+                }
+            }
+        });
+    }
+
+    public void appendPointChange(PointChangeRecord record) {
+        if (!enabled || record.getChangeTime() == null || record.getChangePoints() == null) {
+            return;
+        }
+        long seq = loadSeq;
+        afterCommit(() -> {
+            synchronized (lock) {
+                if (appendable(seq)) {
+                    points = points.append(record.getId(), record.getChangeType(), record.getChangePoints(),
+                            record.getChangeTime());
+                }
+            }
+        });
+    }
+
+    // 已有记录被修改或删除，无法原地更新，下次读取时整体重新加载
+    public void markStale() {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(generation::incrementAndGet);
+    }
+
+    // 持锁调用。seq 是登记追加时的加载序号：之后没有加载过，当前快照一定不含这条记录，可以追加；
+    // 快照已过期时下次加载会读到它；其余情况无法确定，标记过期
+    private boolean appendable(long seq) {
+        if (loadedGeneration != generation.get()) {
+            return false;
+        }
+        if (seq != loadSeq || (seq & 1) != 0) {
+            generation.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loadedGeneration == generation.get()) {
+            return;
+        }
+        synchronized (lock) {
+            long target = generation.get();
+            if (loadedGeneration == target) {
+                return;
+            }
+            loadSeq++;
+            try {
+                transactionTemplate.executeWithoutResult(status -> load());
+            } finally {
+                loadSeq++;
+            }
+            // 加载期间又被标记过期时代数已经变了，下次读取会再加载
+            loadedGeneration = target;
+        }
+    }
+
+    private void load() {
+        SignupColumns s = SignupColumns.empty();
+        try (Stream<SignupSnapshotRow> rows = signupRecordRepository.streamSnapshotRows()) {
+            Iterator<SignupSnapshotRow> it = rows.iterator();
+            while (it.hasNext()) {
+                SignupSnapshotRow row = it.next();
+                s = s.append(row.getId(), row.getVolunteerId(), row.getSignupTime());
+            }
+        }
+
+        PointColumns p = PointColumns.empty();
+        try (Stream<PointSnapshotRow> rows = pointChangeRecordRepository.streamSnapshotRows()) {
+            Iterator<PointSnapshotRow> it = rows.iterator();
+            while (it.hasNext()) {
+                PointSnapshotRow row = it.next();
+                if (row.getChangeType() == null) {
+                    continue;
+                }
+                p = p.append(row.getId(), row.getChangeType(), row.getChangePoints(), row.getChangeTime());
+            }
+        }
+
+        signups = s;
+        points = p;
+    }
+
+    // 月份 × 星期（0 = 周一）的报名次数，year 为 null 时统计全部年份
+    public int[][] heatmap(Integer year) {
+        ensureLoaded();
+        SignupColumns c = signups;
+        int from = year != null ? year * 12 : Integer.MIN_VALUE;
+        int to = year != null ? year * 12 + 12 : Integer.MAX_VALUE;
+
+        int[][] counts = new int[12][7];
+        for (int i = 0; i < c.size; i++) {
+            int m = c.monthIndexes[i];
+            if (m < from || m >= to) {
+                continue;
+            }
+            // 1970-01-01 是周四
+            counts[m % 12][(int) Math.floorMod(c.epochDays[i] + 3L, 7L)]++;
+        }
+        return counts;
+    }
+
+    // 每种变动类型的 {正向积分之和, 负向积分绝对值之和}，下标为 PointChangeType 的 ordinal
+    public double[][] pointFlow(Integer year) {
+        ensureLoaded();
+        PointColumns c = points;
+        int from = year != null ? year * 12 : Integer.MIN_VALUE;
+        int to = year != null ? year * 12 + 12 : Integer.MAX_VALUE;
+
+        long[] earned = new long[POINT_TYPE_COUNT];
+        long[] spent = new long[POINT_TYPE_COUNT];
+        for (int i = 0; i < c.size; i++) {
+            int m = c.monthIndexes[i];
+            if (m < from || m >= to) {
+                continue;
+            }
+            long v = c.pointsFixed[i];
+            if (v > 0) {
+                earned[c.changeTypes[i]] += v;
+            } else {
+                spent[c.changeTypes[i]] -= v;
+            }
+        }
+
+        double[][] flows = new double[POINT_TYPE_COUNT][2];
+        for (int t = 0; t < POINT_TYPE_COUNT; t++) {
+            flows[t][0] = earned[t] / 100.0;
+            flows[t][1] = spent[t] / 100.0;
+        }
+        return flows;
+    }
+
+    // 返回 {每月活跃人数, 每月留存人数}，口径与 StatisticsService.getVolunteerRetention 相同
+    public int[][] retention(Integer year) {
+        ensureLoaded();
+        SignupColumns c = signups;
+        int from = year != null ? year * 12 : Integer.MIN_VALUE;
+        int to = year != null ? year * 12 + 12 : Integer.MAX_VALUE;
+
+        // 志愿者 × 月份编码成一个 long 后排序，同一志愿者的月份相邻，顺序折叠成掩码
+        long[] keys = new long[c.size];
+        int n = 0;
+        for (int i = 0; i < c.size; i++) {
+            int m = c.monthIndexes[i];
+            if (m < from || m >= to) {
+                continue;
+            }
+            keys[n++] = c.volunteerIds[i] * 12 + m % 12;
+        }
+        Arrays.sort(keys, 0, n);
+
+        int[] active = new int[12];
+        int[] retained = new int[12];
+        int i = 0;
+        while (i < n) {
+            long volunteerId = keys[i] / 12;
+            int mask = 0;
+            while (i < n && keys[i] / 12 == volunteerId) {
+                mask |= 1 << (int) (keys[i] % 12);
+                i++;
+            }
+            for (int m = 0; m < 12; m++) {
+                if ((mask & (1 << m)) == 0) {
+                    continue;
+                }
+                active[m]++;
+                if ((mask >>> (m + 1)) != 0) {
+                    retained[m]++;
+                }
+            }
+        }
+        return new int[][] { active, retained };
+    }
+}
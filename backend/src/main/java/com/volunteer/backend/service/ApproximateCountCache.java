@@ -0,0 +1,96 @@
+package com.volunteer.backend.service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Slice 分页用的近似总数
+ * <p>
+ * 请求线程从不执行 COUNT：有缓存就直接返回（过期的也返回，同时在后台重新统计），没有缓存时返回 null 并在后台统计，
+ * 下一次请求就能拿到。同一个 key 同时只会有一个后台统计在跑
+ * </p>
+ */
+@Component
+public class ApproximateCountCache {
+    private static final Logger logger = LoggerFactory.getLogger(ApproximateCountCache.class);
+
+    private record Entry(long count, long countedAt) {
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    // @formatter:off
+    public ApproximateCountCache(
+        @Value("${pagination.count-cache.ttl-seconds:300}") long ttlSeconds,
+        @Value("${pagination.count-cache.max-entries:1024}") int maxEntries
+    ) {
+        // @formatter:on
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(ttlSeconds, 0));
+        this.maxEntries = Math.max(maxEntries, 1);
+    }
+
+    // 返回缓存的总数，尚未统计过时返回 null
+    public Long get(String key, LongSupplier counter) {
+        Entry entry = entries.get(key);
+        if (entry == null || System.nanoTime() - entry.countedAt() >= ttlNanos) {
+            refreshAsync(key, counter);
+        }
+        return entry != null ? entry.count() : null;
+    }
+
+    private void refreshAsync(String key, LongSupplier counter) {
+        if (!inFlight.add(key)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                entries.put(key, new Entry(counter.getAsLong(), System.nanoTime()));
+                evictIfNeeded();
+            } catch (RuntimeException e) {
+                logger.warn("后台统计总数失败: {}", key, e);
+            } finally {
+                inFlight.remove(key);
+            }
+        });
+    }
+
+    // 关键字等参数由客户端决定，key 的数量必须有上限
+    private void evictIfNeeded() {
+        while (entries.size() > maxEntries) {
+            String oldestKey = null;
+            long oldestCountedAt = Long.MAX_VALUE;
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                if (e.getValue().countedAt() < oldestCountedAt) {
+                    oldestCountedAt = e.getValue().countedAt();
+                    oldestKey = e.getKey();
+                }
+            }
+            if (oldestKey == null) {
+                break;
+            }
+            entries.remove(oldestKey);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
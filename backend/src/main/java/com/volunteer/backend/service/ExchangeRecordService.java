@@ -6,14 +6,17 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.volunteer.backend.entity.PointChangeRecord;
 import com.volunteer.backend.entity.Product;
+import com.volunteer.backend.dto.PageCursor;
 import com.volunteer.backend.dto.response.ExchangeRecordResponse;
 import com.volunteer.backend.dto.response.PageResponse;
 import com.volunteer.backend.entity.ExchangeRecord;
@@ -34,33 +37,89 @@ public class ExchangeRecordService {
     private final ProductRepository productRepository;
     private final ExchangeRecordRepository exchangeRecordRepository;
     private final PointChangeRecordRepository pointChangeRecordRepository;
+    private final KpiAggregateService kpiAggregateService;
+    private final VolunteerRadarCache volunteerRadarCache;
+    private final AnalyticsSnapshot analyticsSnapshot;
+    private final ApproximateCountCache approximateCountCache;
 
     // @formatter:off
     public ExchangeRecordService(
         VolunteerRepository volunteerRepository,
         ProductRepository productRepository,
         ExchangeRecordRepository exchangeRecordRepository,
-        PointChangeRecordRepository pointChangeRecordRepository
+        PointChangeRecordRepository pointChangeRecordRepository,
+        KpiAggregateService kpiAggregateService,
+        VolunteerRadarCache volunteerRadarCache,
+        AnalyticsSnapshot analyticsSnapshot,
+        ApproximateCountCache approximateCountCache
     ) {
         // @formatter:on
         this.volunteerRepository = volunteerRepository;
         this.productRepository = productRepository;
         this.exchangeRecordRepository = exchangeRecordRepository;
         this.pointChangeRecordRepository = pointChangeRecordRepository;
+        this.kpiAggregateService = kpiAggregateService;
+        this.volunteerRadarCache = volunteerRadarCache;
+        this.analyticsSnapshot = analyticsSnapshot;
+        this.approximateCountCache = approximateCountCache;
     }
 
-    public PageResponse<ExchangeRecordResponse> getExchangeRecords(Long volunteerId, int page, int size) {
+    // cursor 不为 null 时走游标分页（空字符串表示第一页），忽略 page；slice 为 true 时不做 COUNT，总数取后台缓存的近似值
+    public PageResponse<ExchangeRecordResponse> getExchangeRecords(Long volunteerId, int page, int size,
+            String cursor, boolean slice) {
         Optional<Volunteer> v = volunteerRepository.findByIdAndDeletedFalse(volunteerId);
         if (v.isEmpty()) {
             throw new IllegalArgumentException("未找到志愿者信息");
         }
 
+        if (cursor != null) {
+            if (size <= 0) {
+                throw new IllegalArgumentException("每页记录数必须大于0");
+            }
+            PageCursor after = PageCursor.decode(cursor);
+            // 多取一条用来判断是否还有下一页
+            // @formatter:off
+            List<ExchangeRecord> records = exchangeRecordRepository.seekByVolunteerIdAndStatusNot(
+                volunteerId,
+                ExchangeStatus.CANCELLED,
+                after != null ? after.getTime() : null,
+                after != null ? after.getId() : null,
+                Limit.of(size + 1)
+            );
+            // @formatter:on
+
+            String nextCursor = null;
+            if (records.size() > size) {
+                records = records.subList(0, size);
+                ExchangeRecord last = records.get(size - 1);
+                nextCursor = new PageCursor(last.getOrderTime(), last.getId()).encode();
+            }
+            return new PageResponse<>(buildResponses(records), size, nextCursor);
+        }
+
         Pageable pageable = PageRequest.of(page, size);
+
+        if (slice) {
+            Slice<ExchangeRecord> recordSlice = exchangeRecordRepository
+                    .findSliceByVolunteerIdAndStatusNotOrderByOrderTimeDesc(volunteerId, ExchangeStatus.CANCELLED,
+                            pageable);
+            Long total = approximateCountCache.get("volunteer-exchanges:" + volunteerId,
+                    () -> exchangeRecordRepository.findByVolunteerIdAndStatusNotOrderByOrderTimeDesc(volunteerId,
+                            ExchangeStatus.CANCELLED, PageRequest.of(0, 1)).getTotalElements());
+            return new PageResponse<>(buildResponses(recordSlice.getContent()), page, size, recordSlice.hasNext(),
+                    total);
+        }
+
         Page<ExchangeRecord> recordPage = exchangeRecordRepository.findByVolunteerIdAndStatusNotOrderByOrderTimeDesc(volunteerId,
                 ExchangeStatus.CANCELLED, pageable);
 
+        List<ExchangeRecordResponse> content = buildResponses(recordPage.getContent());
+
+        return new PageResponse<>(content, page, size, recordPage.getTotalElements(), recordPage.getTotalPages());
+    }
+
+    private List<ExchangeRecordResponse> buildResponses(List<ExchangeRecord> records) {
         List<ExchangeRecordResponse> content = new ArrayList<>();
-        List<ExchangeRecord> records = recordPage.getContent();
 
         for (ExchangeRecord r : records) {
             Optional<Product> product = productRepository.findById(r.getProductId());
@@ -85,7 +144,7 @@ public class ExchangeRecordService {
             // @formatter:on
         }
 
-        return new PageResponse<>(content, page, size, recordPage.getTotalElements(), recordPage.getTotalPages());
+        return content;
     }
 
     @Transactional
@@ -130,6 +189,9 @@ public class ExchangeRecordService {
         );
         // @formatter:on
         pointChangeRecordRepository.save(refundRecord);
+        analyticsSnapshot.appendPointChange(refundRecord);
+        kpiAggregateService.recordPointChange(refundRecord.getChangeType(), null, refundRecord.getChangePoints());
+        volunteerRadarCache.invalidate(volunteerId);
 
         // 更新志愿者积分
         Volunteer volunteer = v.get();
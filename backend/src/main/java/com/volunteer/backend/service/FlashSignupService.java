@@ -0,0 +1,526 @@
+package com.volunteer.backend.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.volunteer.backend.dto.ActivitySignupRow;
+import com.volunteer.backend.dto.response.SignupResponse;
+import com.volunteer.backend.entity.Activity;
+import com.volunteer.backend.enums.SignupStatus;
+import com.volunteer.backend.repository.ActivityRepository;
+import com.volunteer.backend.repository.SignupRecordRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 抢报模式的报名
+ * <p>
+ * 开启抢报模式的活动，报名请求不再逐个条件 UPDATE 同一行活动记录：剩余名额分成若干条带放在内存里，请求按线程落到某条带上 CAS
+ * 扣减，扣不到再依次尝试其他条带，全部为 0 即报满。占到名额后立即返回，报名在调用方事务提交后进入队列（回滚则还回名额），
+ * 由 FlashSignupScheduler 定时用 JDBC 批量写入报名记录，并按活动一次性累加报名人数
+ * </p>
+ * <p>
+ * 新报名写入前还没有数据库 id，返回的是负数的临时编号；取消后再次报名复用原记录，返回的就是原记录 id。
+ * 整批写入失败时改为逐条写入，违反约束的单条报名放弃并还回名额，数据库不可用时整批留在队列里下次再写。
+ * 取消和管理员改状态时，是否占名额和普通报名一样按 ActivityWaitlist.holdsSeat 判断
+ * </p>
+ * <p>
+ * 名额只在本进程内分配，只适用于单实例部署；进程异常退出时队列中尚未写入的报名会丢失，正常关闭时会先写完
+ * </p>
+ */
+@Component
+public class FlashSignupService {
+    private static final Logger logger = LoggerFactory.getLogger(FlashSignupService.class);
+
+    private static final int BATCH_SIZE = 500;
+    // 不限人数的活动按这个上限分配名额
+    private static final int UNLIMITED = 1_000_000_000;
+
+    private static final String INSERT_SQL = "insert into signup_record (volunteer_id, activity_id, "
+            + "volunteer_start_time, volunteer_end_time, status, signup_time, update_time) values (?, ?, ?, ?, ?, ?, ?)";
+    // 取消后再次报名时复用原来的记录，与普通报名一致
+    private static final String REUSE_SQL = "update signup_record set volunteer_start_time = ?, volunteer_end_time = ?, "
+            + "status = ?, signup_time = ?, update_time = ?, note = null where id = ?";
+    private static final String COUNT_SQL = "update activity set cur_participants = cur_participants + ? where id = ?";
+
+    // 一个抢报活动在内存中的剩余名额和报名人
+    private static final class Admission {
+        private final AtomicInteger[] stripes;
+        // 有未取消报名的志愿者（包括尚未写入的），只用来拒绝重复报名；已拒绝 / 候补的报名也在其中，但不占名额
+        private final Set<Long> signedUp = ConcurrentHashMap.newKeySet();
+        // 志愿者 id → 已取消的报名记录 id
+        private final Map<Long, Long> cancelledRecords = new ConcurrentHashMap<>();
+        // 志愿者 id → 已进入队列、还没写完的报名，取消报名时从这里撤回
+        private final Map<Long, Pending> queued = new ConcurrentHashMap<>();
+
+        Admission(int remaining, int stripeCount) {
+            stripes = new AtomicInteger[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new AtomicInteger(remaining / stripeCount + (i < remaining % stripeCount ? 1 : 0));
+            }
+        }
+
+        private int home() {
+            return Math.floorMod(Long.hashCode(Thread.currentThread().threadId()), stripes.length);
+        }
+
+        boolean tryAcquire() {
+            int home = home();
+            for (int i = 0; i < stripes.length; i++) {
+                AtomicInteger stripe = stripes[(home + i) % stripes.length];
+                int v = stripe.get();
+                while (v > 0) {
+                    if (stripe.compareAndSet(v, v - 1)) {
+                        return true;
+                    }
+                    v = stripe.get();
+                }
+            }
+            return false;
+        }
+
+        void release(int count) {
+            stripes[home()].addAndGet(count);
+        }
+
+        // 人数上限调低时从各条带依次扣除，已经报出去的名额不收回
+        void shrink(int count) {
+            for (AtomicInteger stripe : stripes) {
+                while (count > 0) {
+                    int v = stripe.get();
+                    if (v <= 0) {
+                        break;
+                    }
+                    int take = Math.min(v, count);
+                    if (stripe.compareAndSet(v, v - take)) {
+                        count -= take;
+                    }
+                }
+            }
+        }
+    }
+
+    // 队列中报名的状态：写入线程和取消报名都用 CAS 认领，同一条报名只会被写入或撤回一次
+    private static final int QUEUED = 0;
+    private static final int WRITING = 1;
+    private static final int DONE = 2;
+    private static final int WITHDRAWN = 3;
+
+    private static final class Pending {
+        private final Admission admission;
+        private final Long activityId;
+        private final Long volunteerId;
+        private final Long reuseRecordId;
+        // 返回给报名人的 id：复用的记录 id，或新报名的临时编号
+        private final Long responseId;
+        private final LocalDateTime volunteerStartTime;
+        private final LocalDateTime volunteerEndTime;
+        private final LocalDateTime signupTime;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        // @formatter:off
+        Pending(
+            Admission admission,
+            Long activityId,
+            Long volunteerId,
+            Long reuseRecordId,
+            Long responseId,
+            LocalDateTime volunteerStartTime,
+            LocalDateTime volunteerEndTime
+        ) {
+            // @formatter:on
+            this.admission = admission;
+            this.activityId = activityId;
+            this.volunteerId = volunteerId;
+            this.reuseRecordId = reuseRecordId;
+            this.responseId = responseId;
+            this.volunteerStartTime = volunteerStartTime;
+            this.volunteerEndTime = volunteerEndTime;
+            this.signupTime = LocalDateTime.now();
+        }
+    }
+
+    private final ActivityRepository activityRepository;
+    private final SignupRecordRepository signupRecordRepository;
+    private final AnalyticsSnapshot analyticsSnapshot;
+    private final VolunteerRadarCache volunteerRadarCache;
+    private final VolunteerSignupStatusCache volunteerSignupStatusCache;
+    private final HotActivityRanking hotActivityRanking;
+    private final ActivityPageCache activityPageCache;
+    private final StatRollupService statRollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int stripeCount = Math.max(Runtime.getRuntime().availableProcessors(), 1);
+
+    private final ConcurrentHashMap<Long, Admission> admissions = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong provisionalIds = new AtomicLong();
+
+    // @formatter:off
+    public FlashSignupService(
+        ActivityRepository activityRepository,
+        SignupRecordRepository signupRecordRepository,
+        AnalyticsSnapshot analyticsSnapshot,
+        VolunteerRadarCache volunteerRadarCache,
+        VolunteerSignupStatusCache volunteerSignupStatusCache,
+        HotActivityRanking hotActivityRanking,
+        ActivityPageCache activityPageCache,
+        StatRollupService statRollupService,
+        DataSource dataSource,
+        PlatformTransactionManager transactionManager
+    ) {
+        // @formatter:on
+        this.activityRepository = activityRepository;
+        this.signupRecordRepository = signupRecordRepository;
+        this.analyticsSnapshot = analyticsSnapshot;
+        this.volunteerRadarCache = volunteerRadarCache;
+        this.volunteerSignupStatusCache = volunteerSignupStatusCache;
+        this.hotActivityRanking = hotActivityRanking;
+        this.activityPageCache = activityPageCache;
+        this.statRollupService = statRollupService;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 可能在调用方事务中或事务提交后的回调里执行，批量写入总是单独提交
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // 第一次报名时从数据库加载剩余名额和已有的报名记录
+    private Admission load(Long activityId) {
+        return transactionTemplate.execute(status -> {
+            Optional<Activity> a = activityRepository.findById(activityId);
+            if (a.isEmpty()) {
+                throw new IllegalArgumentException("活动不存在");
+            }
+            Activity activity = a.get();
+            // 剩余名额按占名额的人数计算，和重复报名检查用的报名人分开
+            int max = activity.getMaxParticipants() != null ? activity.getMaxParticipants() : UNLIMITED;
+            Admission admission = new Admission(Math.max(max - activity.getCurParticipants(), 0), stripeCount);
+            for (ActivitySignupRow row : signupRecordRepository.findSignupRowsByActivityId(activityId)) {
+                if (row.getStatus() == SignupStatus.CANCELLED) {
+                    admission.cancelledRecords.put(row.getVolunteerId(), row.getId());
+                } else {
+                    admission.signedUp.add(row.getVolunteerId());
+                }
+            }
+            return admission;
+        });
+    }
+
+    // 占名额，调用方事务提交后排队写入，回滚时还回名额
+    public SignupResponse admit(Long volunteerId, Long activityId, LocalDateTime volunteerStartTime,
+            LocalDateTime volunteerEndTime) {
+        Admission admission = admissions.computeIfAbsent(activityId, this::load);
+        if (!admission.signedUp.add(volunteerId)) {
+            throw new IllegalArgumentException("您已经报名了该活动");
+        }
+        if (!admission.tryAcquire()) {
+            admission.signedUp.remove(volunteerId);
+            throw new IllegalArgumentException("活动报名人数已满");
+        }
+
+        Long reuseRecordId = admission.cancelledRecords.remove(volunteerId);
+        Long responseId = reuseRecordId != null ? reuseRecordId : -provisionalIds.incrementAndGet();
+        // @formatter:off
+        Pending pending = new Pending(
+            admission,
+            activityId,
+            volunteerId,
+            reuseRecordId,
+            responseId,
+            volunteerStartTime,
+            volunteerEndTime
+        );
+        // @formatter:on
+        onCompletion(() -> {
+            admission.queued.put(volunteerId, pending);
+            queue.add(pending);
+        }, () -> giveBack(pending));
+        return new SignupResponse(responseId, "报名成功");
+    }
+
+    // 撤回一条还在队列里的报名，返回它的 id；名额在调用方事务提交后还回去，回滚时重新排队。
+    // 已经在写入或写完的报名返回 null，由调用方按数据库中的记录取消
+    public Long withdraw(Long activityId, Long volunteerId) {
+        Admission admission = admissions.get(activityId);
+        Pending pending = admission != null ? admission.queued.get(volunteerId) : null;
+        if (pending == null || !pending.state.compareAndSet(QUEUED, WITHDRAWN)) {
+            return null;
+        }
+        onCompletion(() -> giveBack(pending), () -> {
+            if (pending.state.compareAndSet(WITHDRAWN, QUEUED)) {
+                queue.add(pending);
+            }
+        });
+        return pending.responseId;
+    }
+
+    // 报名作废（事务回滚、撤回或写入失败），名额和复用的记录还回去
+    private void giveBack(Pending p) {
+        p.admission.queued.remove(p.volunteerId, p);
+        p.admission.signedUp.remove(p.volunteerId);
+        if (p.reuseRecordId != null) {
+            p.admission.cancelledRecords.put(p.volunteerId, p.reuseRecordId);
+        }
+        p.admission.release(1);
+    }
+
+    // 把队列中的报名批量写入数据库，返回写入的条数
+    public synchronized int flush() {
+        int total = 0;
+        boolean available = true;
+        while (available && !queue.isEmpty()) {
+            List<Pending> batch = new ArrayList<>(BATCH_SIZE);
+            Pending p;
+            while (batch.size() < BATCH_SIZE && (p = queue.poll()) != null) {
+                // 已撤回的报名（以及回滚后重新排队留下的重复项）跳过
+                if (p.state.compareAndSet(QUEUED, WRITING)) {
+                    batch.add(p);
+                }
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<Pending> written = new ArrayList<>(batch.size());
+            available = write(batch, written);
+            total += written.size();
+            afterWrite(written);
+        }
+        return total;
+    }
+
+    // 先整批写入；失败时逐条写入找出有问题的报名，数据库不可用时返回 false，剩下的报名留在队列里
+    private boolean write(List<Pending> batch, List<Pending> written) {
+        try {
+            writeBatch(batch);
+            written.addAll(batch);
+            return true;
+        } catch (DataAccessException e) {
+            logger.warn("批量写入抢报报名记录失败，共 {} 条，改为逐条写入", batch.size(), e);
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Pending p = batch.get(i);
+            try {
+                writeBatch(List.of(p));
+                written.add(p);
+            } catch (DataIntegrityViolationException e) {
+                // 这条报名本身写不进去，重试也不会成功，放弃并还回名额
+                logger.error("放弃写入抢报报名：活动 {}，志愿者 {}", p.activityId, p.volunteerId, e);
+                p.state.set(DONE);
+                giveBack(p);
+            } catch (DataAccessException e) {
+                logger.error("写入抢报报名记录失败，{} 条留在队列中下次重试", batch.size() - i, e);
+                for (Pending rest : batch.subList(i, batch.size())) {
+                    rest.state.set(QUEUED);
+                    queue.add(rest);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> reuses = new ArrayList<>();
+        List<Long> reuseIds = new ArrayList<>();
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Pending p : batch) {
+            Timestamp signupTime = Timestamp.valueOf(p.signupTime);
+            Timestamp start = p.volunteerStartTime != null ? Timestamp.valueOf(p.volunteerStartTime) : null;
+            Timestamp end = p.volunteerEndTime != null ? Timestamp.valueOf(p.volunteerEndTime) : null;
+            String status = SignupStatus.REVIEWING.name();
+            if (p.reuseRecordId != null) {
+                reuses.add(new Object[] { start, end, status, signupTime, signupTime, p.reuseRecordId });
+                reuseIds.add(p.reuseRecordId);
+            } else {
+                inserts.add(new Object[] { p.volunteerId, p.activityId, start, end, status, signupTime, signupTime });
+            }
+            counts.merge(p.activityId, 1, Integer::sum);
+        }
+        List<Object[]> countArgs = new ArrayList<>();
+        for (Map.Entry<Long, Integer> e : counts.entrySet()) {
+            countArgs.add(new Object[] { e.getValue(), e.getKey() });
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            }
+            if (!reuses.isEmpty()) {
+                // 复用的记录报名时间挪到今天，原来那几天的汇总要在提交后重算
+                statRollupService.rollupAfterCommit(findSignupDays(reuseIds));
+                jdbcTemplate.batchUpdate(REUSE_SQL, reuses);
+            }
+            jdbcTemplate.batchUpdate(COUNT_SQL, countArgs);
+        });
+    }
+
+    private List<LocalDate> findSignupDays(List<Long> recordIds) {
+        String placeholders = String.join(", ", Collections.nCopies(recordIds.size(), "?"));
+        List<Timestamp> times = jdbcTemplate.queryForList(
+                "select signup_time from signup_record where id in (" + placeholders + ")", Timestamp.class,
+                recordIds.toArray());
+        List<LocalDate> days = new ArrayList<>();
+        for (Timestamp time : times) {
+            days.add(time.toLocalDateTime().toLocalDate());
+        }
+        return days;
+    }
+
+    private void afterWrite(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<Long> activityIds = new HashSet<>();
+        for (Pending p : batch) {
+            p.state.set(DONE);
+            p.admission.queued.remove(p.volunteerId, p);
+            activityIds.add(p.activityId);
+            volunteerSignupStatusCache.update(p.volunteerId, p.activityId, SignupStatus.REVIEWING);
+            volunteerRadarCache.invalidate(p.volunteerId);
+        }
+        for (Long activityId : activityIds) {
+            hotActivityRanking.refresh(activityId);
+        }
+        analyticsSnapshot.markStale();
+        activityPageCache.invalidate();
+    }
+
+    // 以下方法在调用方事务提交后才修改内存中的名额，活动未加载过时什么也不做
+
+    // 志愿者取消了已经写入的报名，原来占着名额的才还回去
+    public void cancelled(Long activityId, Long volunteerId, Long recordId, SignupStatus oldStatus) {
+        signupStatusChanged(activityId, volunteerId, recordId, oldStatus, SignupStatus.CANCELLED);
+    }
+
+    // 报名状态变了（管理员修改或志愿者取消）：占不占名额变化时同步内存和数据库中的名额，名额不够时报错。
+    // 占名额在调用方事务里从内存扣减，回滚时还回去；释放名额在提交后才还回内存
+    public void signupStatusChanged(Long activityId, Long volunteerId, Long recordId, SignupStatus oldStatus,
+            SignupStatus status) {
+        // 先加载再改数据库，加载时读到的人数不会包含本事务未提交的修改
+        Admission admission = admissions.computeIfAbsent(activityId, this::load);
+        boolean held = ActivityWaitlist.holdsSeat(oldStatus);
+        boolean holds = ActivityWaitlist.holdsSeat(status);
+        if (!held && holds) {
+            if (!admission.tryAcquire()) {
+                throw new IllegalArgumentException("活动报名人数已满");
+            }
+            onCompletion(() -> {
+            }, () -> admission.release(1));
+            if (activityRepository.reserveSeat(activityId) == 0) {
+                throw new IllegalArgumentException("活动报名人数已满");
+            }
+        } else if (held && !holds) {
+            activityRepository.releaseSeat(activityId);
+            afterCommit(() -> admission.release(1));
+        }
+
+        afterCommit(() -> {
+            if (status == SignupStatus.CANCELLED) {
+                admission.signedUp.remove(volunteerId);
+                admission.cancelledRecords.put(volunteerId, recordId);
+            } else {
+                admission.signedUp.add(volunteerId);
+                admission.cancelledRecords.remove(volunteerId, recordId);
+            }
+        });
+        if (held != holds) {
+            hotActivityRanking.refresh(activityId);
+            activityPageCache.invalidate();
+        }
+    }
+
+    // 管理员修改了人数上限
+    public void resized(Long activityId, Integer oldMax, Integer newMax) {
+        int delta = (newMax != null ? newMax : UNLIMITED) - (oldMax != null ? oldMax : UNLIMITED);
+        if (delta == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            Admission admission = admissions.get(activityId);
+            if (admission == null) {
+                return;
+            }
+            if (delta > 0) {
+                admission.release(delta);
+            } else {
+                admission.shrink(-delta);
+            }
+        });
+    }
+
+    // 关闭抢报模式或删除活动：先写完队列，之后的报名改由数据库分配名额
+    public void discard(Long activityId) {
+        afterCommit(() -> {
+            flush();
+            admissions.remove(activityId);
+        });
+    }
+
+    // 调用方事务提交后执行 onCommit，回滚时执行 onRollback；不在事务中时直接执行 onCommit
+    private void onCompletion(Runnable onCommit, Runnable onRollback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        onCommit.run();
+                    } else {
+                        onRollback.run();
+                    }
+                }
+            });
+        } else {
+            onCommit.run();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        int count = flush();
+        if (count > 0) {
+            logger.info("关闭前写入抢报报名记录 {} 条", count);
+        }
+    }
+}
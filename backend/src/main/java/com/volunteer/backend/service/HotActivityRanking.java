@@ -0,0 +1,217 @@
+package com.volunteer.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.volunteer.backend.entity.Activity;
+import com.volunteer.backend.enums.ActivityStatus;
+import com.volunteer.backend.repository.ActivityRepository;
+
+/**
+ * 热门活动排行
+ * <p>
+ * 招募中 / 已确认且设置了人数上限的活动按报名比例从高到低、开始时间从早到晚排好序放在内存里，报名、取消报名和管理员修改活动时
+ * 在事务提交后更新，读取前 k 个不需要查库。已经到开始时间的活动会被状态引擎改为进行中，读取时直接跳过并从排行中移除
+ * </p>
+ */
+@Component
+public class HotActivityRanking {
+    // 比例用交叉相乘比较，避免浮点误差；比例相同时先开始的靠前
+    private record Key(long id, int cur, int max, LocalDateTime startTime) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key o) {
+            int c = Long.compare((long) o.cur * max, (long) cur * o.max);
+            if (c != 0) {
+                return c;
+            }
+            c = startTime.compareTo(o.startTime);
+            return c != 0 ? c : Long.compare(id, o.id);
+        }
+    }
+
+    private final ActivityRepository activityRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Key, Activity> ranked = new TreeMap<>();
+    private final Map<Long, Key> keys = new HashMap<>();
+    private volatile boolean loaded = false;
+
+    // @formatter:off
+    public HotActivityRanking(
+        ActivityRepository activityRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        // @formatter:on
+        this.activityRepository = activityRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // refresh 在调用方事务提交后的回调里执行，必须开启新事务
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    private static boolean isRanked(Activity activity) {
+        ActivityStatus status = activity.getStatus();
+        return (status == ActivityStatus.RECRUITING || status == ActivityStatus.CONFIRMED)
+                && activity.getMaxParticipants() != null && activity.getMaxParticipants() > 0
+                && activity.getStartTime() != null;
+    }
+
+    // 以下两个方法在调用方事务提交后才修改排行，回滚的写入不会进入排行
+
+    // 报名人数由条件 UPDATE 修改，内存中的实体不是最新值，提交后重新读取。读取放在写锁里：
+    // 同一活动的两次刷新各自在锁外读取时，先读到的旧值可能后写入排行；持锁读取时后拿到锁的一定读到更新的值
+    public void refresh(Long activityId) {
+        afterCommit(() -> {
+            if (!loaded) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    Optional<Activity> activity = transactionTemplate.execute(
+                            status -> activityRepository.findById(activityId));
+                    if (activity != null && activity.isPresent()) {
+                        rank(activity.get());
+                    } else {
+                        unrank(activityId);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long activityId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    unrank(activityId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // 测试数据脚本直接写库时需要手动重建
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            load();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                load();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() {
+        ranked.clear();
+        keys.clear();
+        List<Activity> candidates = transactionTemplate.execute(status -> activityRepository.findHotCandidates());
+        if (candidates != null) {
+            for (Activity activity : candidates) {
+                rank(activity);
+            }
+        }
+        loaded = true;
+    }
+
+    private void rank(Activity activity) {
+        unrank(activity.getId());
+        if (!isRanked(activity)) {
+            return;
+        }
+        int cur = activity.getCurParticipants() != null ? activity.getCurParticipants() : 0;
+        Key key = new Key(activity.getId(), cur, activity.getMaxParticipants(), activity.getStartTime());
+        keys.put(activity.getId(), key);
+        ranked.put(key, activity);
+    }
+
+    private void unrank(Long activityId) {
+        Key old = keys.remove(activityId);
+        if (old != null) {
+            ranked.remove(old);
+        }
+    }
+
+    // 返回排名前 limit 的活动，跳过已经开始的
+    public List<Activity> top(int limit, LocalDateTime now) {
+        ensureLoaded();
+        List<Activity> result = new ArrayList<>(limit);
+        List<Long> started = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Key, Activity> e : ranked.entrySet()) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (now.isBefore(e.getKey().startTime())) {
+                    result.add(e.getValue());
+                } else {
+                    started.add(e.getKey().id());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (!started.isEmpty()) {
+            lock.writeLock().lock();
+            try {
+                for (Long id : started) {
+                    Key key = keys.get(id);
+                    if (key != null && !now.isBefore(key.startTime())) {
+                        unrank(id);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return result;
+    }
+}
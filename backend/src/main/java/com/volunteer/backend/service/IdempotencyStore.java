@@ -0,0 +1,231 @@
+package com.volunteer.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.volunteer.backend.dto.request.ExchangeRequest;
+import com.volunteer.backend.dto.request.SignupRequest;
+import com.volunteer.backend.dto.response.ExchangeResponse;
+import com.volunteer.backend.dto.response.SignupResponse;
+import com.volunteer.backend.entity.IdempotencyRecord;
+import com.volunteer.backend.repository.IdempotencyRecordRepository;
+
+/**
+ * 写接口的幂等记录
+ * <p>
+ * 客户端超时重试时带上同一个 Idempotency-Key，第一次成功的响应和业务写入在同一个事务里记入 idempotency_record，
+ * (user_id, endpoint, idempotency_key) 上的唯一索引保证只有一次能提交。重复的 key 先查内存缓存、再查表，
+ * 直接返回记录的响应，不会再走一遍报名或兑换的校验和写入。失败的请求和没有结果 id 的响应不记录，可以用同一个 key 重试
+ * </p>
+ * <p>
+ * 抢报模式的报名在调用方事务回滚时还回名额，唯一索引冲突的一方不会留下报名
+ * </p>
+ */
+@Component
+public class IdempotencyStore {
+    public static final String ACTIVITY_SIGNUP = "ACTIVITY_SIGNUP";
+    public static final String ACTIVITY_CANCEL_SIGNUP = "ACTIVITY_CANCEL_SIGNUP";
+    public static final String PRODUCT_EXCHANGE = "PRODUCT_EXCHANGE";
+
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private record Entry(IdempotencyRecord record, long cachedAt) {
+    }
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final long cacheTtlNanos;
+    private final Map<String, Entry> entries;
+
+    // 同一个 key 的并发请求在本实例内排队，后到的直接拿前一个的结果
+    private final ConcurrentHashMap<String, Object> inFlight = new ConcurrentHashMap<>();
+
+    // @formatter:off
+    public IdempotencyStore(
+        IdempotencyRecordRepository idempotencyRecordRepository,
+        PlatformTransactionManager transactionManager,
+        @Value("${idempotency.retention-hours:24}") long retentionHours,
+        @Value("${idempotency.cache.ttl-seconds:600}") long cacheTtlSeconds,
+        @Value("${idempotency.cache.max-entries:10000}") int cacheMaxEntries
+    ) {
+        // @formatter:on
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = Duration.ofHours(Math.max(retentionHours, 1));
+        this.cacheTtlNanos = TimeUnit.SECONDS.toNanos(Math.max(cacheTtlSeconds, 0));
+        int capacity = Math.max(cacheMaxEntries, 1);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // @formatter:off
+    public SignupResponse signup(
+        Long userId,
+        String endpoint,
+        String idempotencyKey,
+        SignupRequest request,
+        Supplier<SignupResponse> action
+    ) {
+        // @formatter:on
+        String body = String.join("|", String.valueOf(request.getActivityId()),
+                String.valueOf(request.getVolunteerStartTime()), String.valueOf(request.getVolunteerEndTime()));
+        return execute(userId, endpoint, idempotencyKey, body, action, response -> {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setResultId(response.getId());
+            record.setMessage(response.getMessage());
+            record.setWaitlistPosition(response.getWaitlistPosition());
+            return record;
+        }, record -> {
+            SignupResponse response = new SignupResponse(record.getResultId(), record.getMessage());
+            response.setWaitlistPosition(record.getWaitlistPosition());
+            return response;
+        });
+    }
+
+    public ExchangeResponse exchange(Long userId, String idempotencyKey, ExchangeRequest request,
+            Supplier<ExchangeResponse> action) {
+        String body = String.join("|", String.valueOf(request.getProductId()), String.valueOf(request.getNumber()),
+                String.valueOf(request.getRecvInfo()));
+        return execute(userId, PRODUCT_EXCHANGE, idempotencyKey, body, action, response -> {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setResultId(response.getId());
+            record.setMessage(response.getMessage());
+            return record;
+        }, record -> new ExchangeResponse(record.getResultId(), record.getMessage()));
+    }
+
+    public int deleteExpired(LocalDateTime now) {
+        return idempotencyRecordRepository.deleteExpiredRecords(now);
+    }
+
+    // @formatter:off
+    private <T> T execute(
+        Long userId,
+        String endpoint,
+        String idempotencyKey,
+        String body,
+        Supplier<T> action,
+        Function<T, IdempotencyRecord> toRecord,
+        Function<IdempotencyRecord, T> fromRecord
+    ) {
+        // @formatter:on
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        String key = idempotencyKey.trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key 长度不能超过 " + MAX_KEY_LENGTH + " 个字符");
+        }
+
+        String requestHash = sha256(body);
+        String cacheKey = userId + "|" + endpoint + "|" + key;
+        Object lock = inFlight.computeIfAbsent(cacheKey, k -> new Object());
+        try {
+            synchronized (lock) {
+                IdempotencyRecord existing = lookup(cacheKey, userId, endpoint, key);
+                if (existing != null) {
+                    return replay(existing, requestHash, fromRecord);
+                }
+
+                IdempotencyRecord[] saved = new IdempotencyRecord[1];
+                T response;
+                try {
+                    // 业务写入和幂等记录一起提交；其他实例抢先提交了同一个 key 时唯一索引冲突，这次的写入整体回滚
+                    response = transactionTemplate.execute(status -> {
+                        T r = action.get();
+                        IdempotencyRecord record = toRecord.apply(r);
+                        // 没有结果 id 的响应无法可靠地重放，不记录
+                        if (record.getResultId() == null) {
+                            return r;
+                        }
+                        record.setUserId(userId);
+                        record.setEndpoint(endpoint);
+                        record.setIdempotencyKey(key);
+                        record.setRequestHash(requestHash);
+                        record.setExpireTime(record.getCreateTime().plus(retention));
+                        saved[0] = idempotencyRecordRepository.saveAndFlush(record);
+                        return r;
+                    });
+                } catch (DataIntegrityViolationException e) {
+                    Optional<IdempotencyRecord> winner = idempotencyRecordRepository
+                            .findByUserIdAndEndpointAndIdempotencyKey(userId, endpoint, key);
+                    if (winner.isEmpty()) {
+                        throw e;
+                    }
+                    cache(cacheKey, winner.get());
+                    return replay(winner.get(), requestHash, fromRecord);
+                }
+                if (saved[0] != null) {
+                    cache(cacheKey, saved[0]);
+                }
+                return response;
+            }
+        } finally {
+            inFlight.remove(cacheKey, lock);
+        }
+    }
+
+    private IdempotencyRecord lookup(String cacheKey, Long userId, String endpoint, String key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(cacheKey);
+            if (entry != null && now - entry.cachedAt() <= cacheTtlNanos) {
+                return entry.record();
+            }
+            entries.remove(cacheKey);
+        }
+
+        Optional<IdempotencyRecord> r = idempotencyRecordRepository.findByUserIdAndEndpointAndIdempotencyKey(userId,
+                endpoint, key);
+        // 过期但还没清理的记录照样生效，清理任务删除之后 key 才能复用
+        if (r.isEmpty()) {
+            return null;
+        }
+        cache(cacheKey, r.get());
+        return r.get();
+    }
+
+    private void cache(String cacheKey, IdempotencyRecord record) {
+        synchronized (entries) {
+            entries.put(cacheKey, new Entry(record, System.nanoTime()));
+        }
+    }
+
+    private <T> T replay(IdempotencyRecord record, String requestHash, Function<IdempotencyRecord, T> fromRecord) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new IllegalArgumentException("该 Idempotency-Key 已用于其他请求");
+        }
+        return fromRecord.apply(record);
+    }
+
+    private static String sha256(String body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.volunteer.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.volunteer.backend.entity.KpiAggregate;
+import com.volunteer.backend.enums.ActivityStatus;
+import com.volunteer.backend.enums.PointChangeType;
+import com.volunteer.backend.repository.ActivityRepository;
+import com.volunteer.backend.repository.KpiAggregateRepository;
+import com.volunteer.backend.repository.PointChangeRecordRepository;
+import com.volunteer.backend.repository.SignupRecordRepository;
+
+@Service
+public class KpiAggregateService {
+    private final KpiAggregateRepository kpiAggregateRepository;
+    private final SignupRecordRepository signupRecordRepository;
+    private final ActivityRepository activityRepository;
+    private final PointChangeRecordRepository pointChangeRecordRepository;
+
+    // @formatter:off
+    public KpiAggregateService(
+        KpiAggregateRepository kpiAggregateRepository,
+        SignupRecordRepository signupRecordRepository,
+        ActivityRepository activityRepository,
+        PointChangeRecordRepository pointChangeRecordRepository
+    ) {
+        // @formatter:on
+        this.kpiAggregateRepository = kpiAggregateRepository;
+        this.signupRecordRepository = signupRecordRepository;
+        this.activityRepository = activityRepository;
+        this.pointChangeRecordRepository = pointChangeRecordRepository;
+    }
+
+    private double releasedPart(Double points) {
+        // 只有正向变动才计入“积分发放”
+        return points != null && points > 0 ? points : 0.0;
+    }
+
+    @Transactional
+    public KpiAggregate getAggregate() {
+        Optional<KpiAggregate> k = kpiAggregateRepository.findById(KpiAggregate.SINGLETON_ID);
+        if (k.isPresent()) {
+            return k.get();
+        }
+        // 首次访问时表中还没有汇总行，直接全量构建一次
+        return rebuild();
+    }
+
+    @Transactional
+    public KpiAggregate rebuild() {
+        KpiAggregate aggregate = new KpiAggregate();
+        aggregate.setTotalServiceHours(signupRecordRepository.sumAllHours());
+        aggregate.setCompletedActivities((int) activityRepository.countByStatus(ActivityStatus.COMPLETED));
+        aggregate.setActivityEarnPoints(
+                pointChangeRecordRepository.sumPositivePointsByChangeType(PointChangeType.ACTIVITY_EARN));
+        aggregate.setSystemBonusPoints(
+                pointChangeRecordRepository.sumPositivePointsByChangeType(PointChangeType.SYSTEM_BONUS));
+        aggregate.setAdminAdjustPoints(
+                pointChangeRecordRepository.sumPositivePointsByChangeType(PointChangeType.ADMIN_ADJUST));
+        aggregate.setRebuildTime(LocalDateTime.now());
+        return kpiAggregateRepository.save(aggregate);
+    }
+
+    // 报名记录的实际服务时长发生变化（新增时 oldHours 为 null，删除时 newHours 为 null）
+    @Transactional
+    public void recordServiceHoursChange(Integer oldHours, Integer newHours) {
+        long delta = (newHours != null ? newHours : 0) - (oldHours != null ? oldHours : 0);
+        if (delta != 0) {
+            kpiAggregateRepository.addServiceHours(KpiAggregate.SINGLETON_ID, delta);
+        }
+    }
+
+    @Transactional
+    public void recordActivityStatusChange(ActivityStatus oldStatus, ActivityStatus newStatus) {
+        int delta = 0;
+        if (oldStatus == ActivityStatus.COMPLETED) {
+            delta--;
+        }
+        if (newStatus == ActivityStatus.COMPLETED) {
+            delta++;
+        }
+        if (delta != 0) {
+            kpiAggregateRepository.addCompletedActivities(KpiAggregate.SINGLETON_ID, delta);
+        }
+    }
+
+    // 状态引擎批量把活动改为已完成
+    @Transactional
+    public void recordActivitiesCompleted(int count) {
+        if (count > 0) {
+            kpiAggregateRepository.addCompletedActivities(KpiAggregate.SINGLETON_ID, count);
+        }
+    }
+
+    // 积分流水发生变化（新增时 oldPoints 为 null，删除时 newPoints 为 null）
+    @Transactional
+    public void recordPointChange(PointChangeType changeType, Double oldPoints, Double newPoints) {
+        double delta = releasedPart(newPoints) - releasedPart(oldPoints);
+        if (delta == 0) {
+            return;
+        }
+
+        switch (changeType) {
+        case ACTIVITY_EARN:
+            kpiAggregateRepository.addReleasedPoints(KpiAggregate.SINGLETON_ID, delta, 0.0, 0.0);
+            break;
+        case SYSTEM_BONUS:
+            kpiAggregateRepository.addReleasedPoints(KpiAggregate.SINGLETON_ID, 0.0, delta, 0.0);
+            break;
+        case ADMIN_ADJUST:
+            kpiAggregateRepository.addReleasedPoints(KpiAggregate.SINGLETON_ID, 0.0, 0.0, delta);
+            break;
+        default:
+            // 兑换消耗不计入积分发放
+            break;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.volunteer.backend.service;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.volunteer.backend.dto.ActivitySignupRow;
+import com.volunteer.backend.entity.Activity;
+import com.volunteer.backend.enums.SignupStatus;
+import com.volunteer.backend.repository.ActivityRepository;
+import com.volunteer.backend.repository.SignupRecordRepository;
+
+/**
+ * 抽签报名
+ * <p>
+ * 抽签模式的活动在抽签前只记录报名（待审核状态，不占名额），报名时只对活动行加共享锁，彼此不排队。
+ * 到了 lotteryDrawTime，定时任务用随机种子打乱按 id 排序的报名记录，剩余名额内的改为已确认、其余改为已拒绝，
+ * 分批 UPDATE 后把报名人数一次写回。种子保存在活动上，同样的报名记录和种子得到同样的结果；
+ * 抽签之后的报名和普通活动一样占名额或进候补
+ * </p>
+ */
+@Component
+public class LotteryDrawService {
+    private static final Logger logger = LoggerFactory.getLogger(LotteryDrawService.class);
+
+    // 每条 UPDATE 的 IN 列表长度
+    private static final int BATCH_SIZE = 500;
+
+    private final ActivityRepository activityRepository;
+    private final SignupRecordRepository signupRecordRepository;
+    private final VolunteerSignupStatusCache volunteerSignupStatusCache;
+    private final VolunteerRadarCache volunteerRadarCache;
+    private final AnalyticsSnapshot analyticsSnapshot;
+    private final HotActivityRanking hotActivityRanking;
+    private final ActivityPageCache activityPageCache;
+    private final TransactionTemplate transactionTemplate;
+    private final SecureRandom seedSource = new SecureRandom();
+
+    // @formatter:off
+    public LotteryDrawService(
+        ActivityRepository activityRepository,
+        SignupRecordRepository signupRecordRepository,
+        VolunteerSignupStatusCache volunteerSignupStatusCache,
+        VolunteerRadarCache volunteerRadarCache,
+        AnalyticsSnapshot analyticsSnapshot,
+        HotActivityRanking hotActivityRanking,
+        ActivityPageCache activityPageCache,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.activityRepository = activityRepository;
+        this.signupRecordRepository = signupRecordRepository;
+        this.volunteerSignupStatusCache = volunteerSignupStatusCache;
+        this.volunteerRadarCache = volunteerRadarCache;
+        this.analyticsSnapshot = analyticsSnapshot;
+        this.hotActivityRanking = hotActivityRanking;
+        this.activityPageCache = activityPageCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    // @formatter:on
+
+    // 抽签模式且还没有抽签：报名不占名额，报名状态的变化也不影响人数
+    public static boolean isPending(Activity activity) {
+        return Boolean.TRUE.equals(activity.getLotteryMode()) && activity.getLotterySeed() == null;
+    }
+
+    // 同样的报名 id 和种子得到同样的中签列表
+    public static List<Long> draw(List<Long> entrantIds, long seed, Integer seats) {
+        List<Long> shuffled = new ArrayList<>(entrantIds);
+        Collections.sort(shuffled);
+        Collections.shuffle(shuffled, new Random(seed));
+        if (seats == null || seats >= shuffled.size()) {
+            return shuffled;
+        }
+        return new ArrayList<>(shuffled.subList(0, seats));
+    }
+
+    public void drawDue() {
+        for (Long activityId : activityRepository.findDueLotteryIds(LocalDateTime.now())) {
+            try {
+                drawActivity(activityId);
+            } catch (Exception e) {
+                logger.error("活动 {} 抽签失败", activityId, e);
+            }
+        }
+    }
+
+    public void drawActivity(Long activityId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // 先认领再读：写种子的 UPDATE 会等正在进行的报名提交，之后的读取才能看到这些报名
+            long seed = seedSource.nextLong();
+            if (activityRepository.claimLotteryDraw(activityId, seed) == 0) {
+                return;
+            }
+
+            Optional<Activity> a = activityRepository.findById(activityId);
+            if (a.isEmpty()) {
+                return;
+            }
+            Activity activity = a.get();
+
+            // 管理员在截止前已经确认的报名直接占名额，不参与抽签
+            List<ActivitySignupRow> entrants = new ArrayList<>();
+            int held = 0;
+            for (ActivitySignupRow row : signupRecordRepository.findSignupRowsByActivityId(activityId)) {
+                if (row.getStatus() == SignupStatus.REVIEWING) {
+                    entrants.add(row);
+                } else if (ActivityWaitlist.holdsSeat(row.getStatus())) {
+                    held++;
+                }
+            }
+            entrants.sort(Comparator.comparing(ActivitySignupRow::getId));
+
+            List<Long> entrantIds = new ArrayList<>(entrants.size());
+            for (ActivitySignupRow row : entrants) {
+                entrantIds.add(row.getId());
+            }
+            Integer seats = activity.getMaxParticipants() != null ? Math.max(activity.getMaxParticipants() - held, 0)
+                    : null;
+            Set<Long> winners = new HashSet<>(draw(entrantIds, seed, seats));
+
+            List<Long> confirmed = new ArrayList<>(winners.size());
+            List<Long> rejected = new ArrayList<>(entrants.size() - winners.size());
+            for (Long id : entrantIds) {
+                (winners.contains(id) ? confirmed : rejected).add(id);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            updateStatus(confirmed, SignupStatus.CONFIRMED, now);
+            updateStatus(rejected, SignupStatus.REJECTED, now);
+            activityRepository.updateCurParticipants(activityId, held + confirmed.size());
+
+            List<Long> volunteerIds = new ArrayList<>(entrants.size());
+            for (ActivitySignupRow row : entrants) {
+                SignupStatus result = winners.contains(row.getId()) ? SignupStatus.CONFIRMED : SignupStatus.REJECTED;
+                volunteerSignupStatusCache.update(row.getVolunteerId(), activityId, result);
+                volunteerIds.add(row.getVolunteerId());
+            }
+            volunteerRadarCache.invalidateAll(volunteerIds);
+            analyticsSnapshot.markStale();
+            hotActivityRanking.refresh(activityId);
+            activityPageCache.invalidate();
+
+            logger.info("活动 {} 抽签完成：报名 {} 人，中签 {} 人，种子 {}", activityId, entrants.size(), confirmed.size(), seed);
+        });
+    }
+
+    private void updateStatus(List<Long> ids, SignupStatus status, LocalDateTime now) {
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            signupRecordRepository.updateStatusByIds(batch, status, now);
+        }
+    }
+}
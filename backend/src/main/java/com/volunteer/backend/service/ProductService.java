@@ -32,19 +32,25 @@ public class ProductService {
     private final VolunteerRepository volunteerRepository;
     private final ExchangeRecordRepository exchangeRecordRepository;
     private final PointChangeRecordRepository pointChangeRecordRepository;
+    private final VolunteerRadarCache volunteerRadarCache;
+    private final AnalyticsSnapshot analyticsSnapshot;
 
     // @formatter:off
     public ProductService(
         ProductRepository productRepository,
         VolunteerRepository volunteerRepository,
         ExchangeRecordRepository exchangeRecordRepository,
-        PointChangeRecordRepository pointChangeRecordRepository
+        PointChangeRecordRepository pointChangeRecordRepository,
+        VolunteerRadarCache volunteerRadarCache,
+        AnalyticsSnapshot analyticsSnapshot
     ) {
         // @formatter:on
         this.productRepository = productRepository;
         this.volunteerRepository = volunteerRepository;
         this.exchangeRecordRepository = exchangeRecordRepository;
         this.pointChangeRecordRepository = pointChangeRecordRepository;
+        this.volunteerRadarCache = volunteerRadarCache;
+        this.analyticsSnapshot = analyticsSnapshot;
     }
 
     private Comparator<Product> buildComparator() {
@@ -232,6 +238,8 @@ public class ProductService {
         );
         // @formatter:on
         pointChangeRecordRepository.save(pointChangeRecord);
+        analyticsSnapshot.appendPointChange(pointChangeRecord);
+        volunteerRadarCache.invalidate(volunteer.getId());
 
         volunteer.setPoints(volunteer.getPoints() - totalPoints);
         volunteerRepository.save(volunteer);
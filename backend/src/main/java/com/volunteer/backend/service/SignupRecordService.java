@@ -5,11 +5,14 @@ import java.util.List;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import com.volunteer.backend.dto.PageCursor;
 import com.volunteer.backend.dto.response.PageResponse;
 import com.volunteer.backend.dto.response.SignupRecordResponse;
 import com.volunteer.backend.entity.Activity;
@@ -27,30 +30,95 @@ public class SignupRecordService {
     private final VolunteerRepository volunteerRepository;
     private final ActivityRepository activityRepository;
     private final SignupRecordRepository signupRecordRepository;
+    private final ApproximateCountCache approximateCountCache;
+    private final ActivityWaitlist activityWaitlist;
 
     // @formatter:off
     public SignupRecordService(
         VolunteerRepository volunteerRepository,
         ActivityRepository activityRepository,
-        SignupRecordRepository signupRecordRepository
+        SignupRecordRepository signupRecordRepository,
+        ApproximateCountCache approximateCountCache,
+        ActivityWaitlist activityWaitlist
     ) {
         this.volunteerRepository = volunteerRepository;
         this.activityRepository = activityRepository;
         this.signupRecordRepository = signupRecordRepository;
+        this.approximateCountCache = approximateCountCache;
+        this.activityWaitlist = activityWaitlist;
     }
     // @formatter:on
 
-    public PageResponse<SignupRecordResponse> getPaginatedSignupRecords(Long volunteerId, int page, int size) {
+    // cursor 不为 null 时走游标分页（空字符串表示第一页），忽略 page；slice 为 true 时不做 COUNT，总数取后台缓存的近似值
+    // @formatter:off
+    public PageResponse<SignupRecordResponse> getPaginatedSignupRecords(
+        Long volunteerId,
+        int page,
+        int size,
+        String cursor,
+        boolean slice
+    ) {
+        // @formatter:on
         Optional<Volunteer> v = volunteerRepository.findByIdAndDeletedFalse(volunteerId);
         if (v.isEmpty()) {
             throw new IllegalArgumentException("未找到志愿者信息");
         }
 
+        if (cursor != null) {
+            if (size <= 0) {
+                throw new IllegalArgumentException("每页记录数必须大于0");
+            }
+            PageCursor after = PageCursor.decode(cursor);
+            // 多取一条用来判断是否还有下一页
+            // @formatter:off
+            List<SignupRecord> records = signupRecordRepository.seekByVolunteerIdAndStatusNot(
+                volunteerId,
+                SignupStatus.CANCELLED,
+                after != null ? after.getTime() : null,
+                after != null ? after.getId() : null,
+                Limit.of(size + 1)
+            );
+            // @formatter:on
+
+            String nextCursor = null;
+            if (records.size() > size) {
+                records = records.subList(0, size);
+                SignupRecord last = records.get(size - 1);
+                nextCursor = new PageCursor(last.getSignupTime(), last.getId()).encode();
+            }
+            return new PageResponse<>(buildResponses(records), size, nextCursor);
+        }
+
         Pageable pageable = PageRequest.of(page, size);
+
+        if (slice) {
+            Slice<SignupRecord> recordSlice = signupRecordRepository
+                    .findSliceByVolunteerIdAndStatusNotOrderBySignupTimeDesc(volunteerId, SignupStatus.CANCELLED,
+                            pageable);
+            Long total = approximateCountCache.get("volunteer-signups:" + volunteerId,
+                    () -> signupRecordRepository.findByVolunteerIdAndStatusNotOrderBySignupTimeDesc(volunteerId,
+                            SignupStatus.CANCELLED, PageRequest.of(0, 1)).getTotalElements());
+            return new PageResponse<>(buildResponses(recordSlice.getContent()), page, size, recordSlice.hasNext(),
+                    total);
+        }
+
         Page<SignupRecord> recordPage = signupRecordRepository.findByVolunteerIdAndStatusNotOrderBySignupTimeDesc(volunteerId,
                 SignupStatus.CANCELLED, pageable);
 
-        List<SignupRecord> records = recordPage.getContent();
+        List<SignupRecordResponse> content = buildResponses(recordPage.getContent());
+
+        // @formatter:off
+        return new PageResponse<>(
+            content,
+            page,
+            size,
+            recordPage.getTotalElements(),
+            recordPage.getTotalPages()
+        );
+        // @formatter:on
+    }
+
+    private List<SignupRecordResponse> buildResponses(List<SignupRecord> records) {
         List<SignupRecordResponse> content = new ArrayList<>();
 
         for (SignupRecord r : records) {
@@ -77,17 +145,17 @@ public class SignupRecordService {
                 )
             );
             // @formatter:on
+            setWaitlistPosition(content.get(content.size() - 1), r);
         }
 
-        // @formatter:off
-        return new PageResponse<>(
-            content,
-            page,
-            size,
-            recordPage.getTotalElements(),
-            recordPage.getTotalPages()
-        );
-        // @formatter:on
+        return content;
+    }
+
+    // 候补中的记录返回当前排第几位
+    private void setWaitlistPosition(SignupRecordResponse response, SignupRecord r) {
+        if (r.getStatus() == SignupStatus.WAITLISTED && r.getWaitlistPosition() != null) {
+            response.setWaitlistPosition(activityWaitlist.rank(r.getActivityId(), r.getWaitlistPosition()));
+        }
     }
 
     public List<SignupRecordResponse> getAllSignupRecords(Long volunteerId) {
@@ -123,6 +191,7 @@ public class SignupRecordService {
                 )
             );
             // @formatter:on
+            setWaitlistPosition(content.get(content.size() - 1), r);
         }
 
         return content;
@@ -0,0 +1,238 @@
+package com.volunteer.backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.volunteer.backend.dto.ActivityTypeTrendCell;
+import com.volunteer.backend.dto.DailyPointRollupRow;
+import com.volunteer.backend.dto.DailySignupRollupRow;
+import com.volunteer.backend.dto.PointFlowRow;
+import com.volunteer.backend.entity.StatDailyRollup;
+import com.volunteer.backend.enums.ActivityType;
+import com.volunteer.backend.repository.ActivityRepository;
+import com.volunteer.backend.repository.PointChangeRecordRepository;
+import com.volunteer.backend.repository.SignupRecordRepository;
+import com.volunteer.backend.repository.StatDailyRollupRepository;
+
+@Service
+public class StatRollupService {
+    private static final Logger logger = LoggerFactory.getLogger(StatRollupService.class);
+
+    // 单次回填最多覆盖的天数，避免一次请求跑太久
+    private static final long MAX_BACKFILL_DAYS = 3660;
+
+    private final StatDailyRollupRepository statDailyRollupRepository;
+    private final SignupRecordRepository signupRecordRepository;
+    private final ActivityRepository activityRepository;
+    private final PointChangeRecordRepository pointChangeRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int refreshDays;
+
+    // @formatter:off
+    public StatRollupService(
+        StatDailyRollupRepository statDailyRollupRepository,
+        SignupRecordRepository signupRecordRepository,
+        ActivityRepository activityRepository,
+        PointChangeRecordRepository pointChangeRecordRepository,
+        PlatformTransactionManager transactionManager,
+        @Value("${statistics.rollup.enabled:true}") boolean enabled,
+        @Value("${statistics.rollup.refresh-days:7}") int refreshDays
+    ) {
+        // @formatter:on
+        this.statDailyRollupRepository = statDailyRollupRepository;
+        this.signupRecordRepository = signupRecordRepository;
+        this.activityRepository = activityRepository;
+        this.pointChangeRecordRepository = pointChangeRecordRepository;
+        // 每天单独一个事务，回填中途失败时已完成的天数不会回滚；
+        // 业务事务提交后的重算也要开新事务，不能加入已经提交的那个
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.refreshDays = Math.max(refreshDays, 1);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getRefreshDays() {
+        return refreshDays;
+    }
+
+    // 重新汇总某一天：先删后写，重复执行结果相同
+    public void rollupDay(LocalDate day) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime start = day.atStartOfDay();
+            LocalDateTime end = start.plusDays(1);
+
+            StatDailyRollup total = new StatDailyRollup(day, null, null);
+            Map<ActivityType, StatDailyRollup> byType = new EnumMap<>(ActivityType.class);
+
+            for (DailySignupRollupRow row : signupRecordRepository.aggregateSignupsByTypeBetween(start, end)) {
+                if (row.getActivityType() == null) {
+                    continue;
+                }
+                StatDailyRollup r = byType.computeIfAbsent(row.getActivityType(),
+                        t -> new StatDailyRollup(day, t, null));
+                r.setSignupCount(row.getSignupCount());
+                r.setCompletedHours(row.getCompletedHours());
+                r.setDistinctVolunteers(row.getDistinctVolunteers());
+                total.setSignupCount(total.getSignupCount() + row.getSignupCount());
+                total.setCompletedHours(total.getCompletedHours() + row.getCompletedHours());
+            }
+
+            for (ActivityTypeTrendCell cell : activityRepository.aggregateTypeTrendBetween(start, end)) {
+                if (cell.getActivityType() == null) {
+                    continue;
+                }
+                StatDailyRollup r = byType.computeIfAbsent(cell.getActivityType(),
+                        t -> new StatDailyRollup(day, t, null));
+                r.setActivityCount(cell.getActivityCount());
+                total.setActivityCount(total.getActivityCount() + cell.getActivityCount());
+            }
+
+            List<StatDailyRollup> rows = new ArrayList<>(byType.values());
+            for (DailyPointRollupRow row : pointChangeRecordRepository.aggregatePointsByChangeTypeBetween(start, end)) {
+                if (row.getChangeType() == null) {
+                    continue;
+                }
+                StatDailyRollup r = new StatDailyRollup(day, null, row.getChangeType());
+                r.setPointsEarned(row.getPointsEarned());
+                r.setPointsSpent(row.getPointsSpent());
+                r.setDistinctVolunteers(row.getDistinctVolunteers());
+                rows.add(r);
+                total.setPointsEarned(total.getPointsEarned() + row.getPointsEarned());
+                total.setPointsSpent(total.getPointsSpent() + row.getPointsSpent());
+            }
+
+            // 合计行的人数只统计报名人数，积分流水的人数看各变动类型的行
+            total.setDistinctVolunteers(signupRecordRepository.countDistinctVolunteersBetween(start, end));
+            rows.add(total);
+
+            statDailyRollupRepository.deleteByStatDate(day);
+            statDailyRollupRepository.saveAll(rows);
+        });
+    }
+
+    // 回填 [from, to] 闭区间内的每一天，返回处理的天数
+    public int backfill(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("回填起止日期不能为空");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("回填起始日期不能晚于结束日期");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_BACKFILL_DAYS) {
+            throw new IllegalArgumentException("单次回填不能超过" + MAX_BACKFILL_DAYS + "天");
+        }
+
+        int days = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            rollupDay(day);
+            days++;
+        }
+        return days;
+    }
+
+    // 管理端回填入口，日期格式 yyyy-MM-dd，结束日期缺省为昨天
+    public int backfill(String from, String to) {
+        LocalDate toDate = to == null || to.isBlank() ? LocalDate.now().minusDays(1) : parseDate(to);
+        return backfill(parseDate(from), toDate);
+    }
+
+    private LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("回填起始日期不能为空");
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("日期格式不正确，请使用 yyyy-MM-dd 格式");
+        }
+    }
+
+    // 定时任务：重算截至昨天的最近 refreshDays 天，顺带吸收管理员对近期记录的修改
+    public int refreshRecentDays() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        return backfill(yesterday.minusDays(refreshDays - 1), yesterday);
+    }
+
+    // 业务写入改动了已经汇总过的日期（删除活动、重新报名挪走旧的报名时间、导入过去的活动等），
+    // 定时任务只重算最近几天，这里在当前事务提交后重算受影响的日期；今天还没有汇总，不用处理
+    public void rollupAfterCommit(Collection<LocalDate> days) {
+        if (!enabled) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        SortedSet<LocalDate> affected = new TreeSet<>();
+        for (LocalDate day : days) {
+            if (day != null && day.isBefore(today)) {
+                affected.add(day);
+            }
+        }
+        if (affected.isEmpty()) {
+            return;
+        }
+
+        Runnable rollup = () -> {
+            for (LocalDate day : affected) {
+                try {
+                    rollupDay(day);
+                } catch (RuntimeException e) {
+                    logger.error("重算 {} 的统计汇总失败，请在管理端回填该日期", day, e);
+                }
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rollup.run();
+                }
+            });
+        } else {
+            rollup.run();
+        }
+    }
+
+    // [start, end) 内的每一天是否都已经汇总过
+    public boolean isCovered(LocalDate start, LocalDate end) {
+        long days = ChronoUnit.DAYS.between(start, end);
+        if (days <= 0) {
+            return true;
+        }
+        return statDailyRollupRepository.countDayTotalsBetween(start, end) == days;
+    }
+
+    public List<StatDailyRollup> findDayTotals(LocalDate start, LocalDate end) {
+        return statDailyRollupRepository.findDayTotalsBetween(start, end);
+    }
+
+    public List<StatDailyRollup> findActivityTypeRows(LocalDate start, LocalDate end) {
+        return statDailyRollupRepository.findActivityTypeRowsBetween(start, end);
+    }
+
+    public List<PointFlowRow> sumPointFlow(LocalDate start, LocalDate end) {
+        return statDailyRollupRepository.sumPointFlowBetween(start, end);
+    }
+}
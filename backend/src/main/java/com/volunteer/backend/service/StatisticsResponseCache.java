@@ -0,0 +1,195 @@
+package com.volunteer.backend.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.volunteer.backend.dto.response.StatisticsCacheStatsResponse;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 公开统计接口的响应缓存
+ * <p>
+ * 按“接口 + 参数”缓存结果：TTL 内直接命中；过期后的 stale 窗口内先返回旧值，同时在后台刷新；
+ * 同一个 key 同时只会有一个请求真正查库，其余请求等待它的结果；整体失效后，失效前开始的查询结果不会写回缓存
+ * </p>
+ */
+@Component
+public class StatisticsResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsResponseCache.class);
+
+    private record Entry(Object value, long generation, long loadedAt) {
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // 每次 invalidateAll 递增，失效前开始的查询结果不写回缓存
+    private final AtomicLong generation = new AtomicLong();
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final int maxEntries;
+
+    // @formatter:off
+    public StatisticsResponseCache(
+        @Value("${statistics.cache.enabled:true}") boolean enabled,
+        @Value("${statistics.cache.ttl-seconds:60}") long ttlSeconds,
+        @Value("${statistics.cache.stale-seconds:300}") long staleSeconds,
+        @Value("${statistics.cache.max-entries:512}") int maxEntries
+    ) {
+        // @formatter:on
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(ttlSeconds, 0));
+        this.staleNanos = TimeUnit.SECONDS.toNanos(Math.max(staleSeconds, 0));
+        this.maxEntries = Math.max(maxEntries, 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.generation() == generation.get()) {
+            long age = System.nanoTime() - entry.loadedAt();
+            if (age < ttlNanos) {
+                hits.increment();
+                return (T) entry.value();
+            }
+            if (age < ttlNanos + staleNanos) {
+                staleHits.increment();
+                refreshAsync(key, loader);
+                return (T) entry.value();
+            }
+        }
+
+        misses.increment();
+        return (T) load(key, loader);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+        // 失效前开始的查询不再让新请求等待，新请求重新查库
+        inFlight.clear();
+    }
+
+    public StatisticsCacheStatsResponse getStats() {
+        // @formatter:off
+        return new StatisticsCacheStatsResponse(
+            hits.sum(),
+            staleHits.sum(),
+            misses.sum(),
+            coalesced.sum(),
+            loadFailures.sum(),
+            entries.size()
+        );
+        // @formatter:on
+    }
+
+    private Object load(String key, Supplier<?> loader) {
+        long expectedGeneration = generation.get();
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            // 已经有请求在算同一个 key，等它的结果即可
+            coalesced.increment();
+            return join(existing);
+        }
+
+        try {
+            Object value = loader.get();
+            // 查询期间发生过失效的结果可能是失效前读到的数据，不写回缓存；
+            // 检查和写入之间发生的失效由读取时比较 generation 兜底
+            if (generation.get() == expectedGeneration) {
+                entries.put(key, new Entry(value, expectedGeneration, System.nanoTime()));
+                evictIfNeeded();
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            // 失败的结果不缓存，等待中的请求收到同一个异常
+            loadFailures.increment();
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void refreshAsync(String key, Supplier<?> loader) {
+        if (inFlight.containsKey(key)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                load(key, loader);
+            } catch (RuntimeException e) {
+                logger.warn("后台刷新统计缓存失败: {}", key, e);
+            }
+        });
+    }
+
+    // 参数由客户端决定，key 的数量必须有上限
+    private void evictIfNeeded() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        entries.values().removeIf(e -> now - e.loadedAt() >= ttlNanos + staleNanos);
+
+        while (entries.size() > maxEntries) {
+            String oldestKey = null;
+            long oldestLoadedAt = Long.MAX_VALUE;
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                if (e.getValue().loadedAt() < oldestLoadedAt) {
+                    oldestLoadedAt = e.getValue().loadedAt();
+                    oldestKey = e.getKey();
+                }
+            }
+            if (oldestKey == null) {
+                break;
+            }
+            entries.remove(oldestKey);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
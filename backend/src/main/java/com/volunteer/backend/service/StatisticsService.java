@@ -1,31 +1,47 @@
 package com.volunteer.backend.service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.volunteer.backend.dto.ActivityParticipationBubble;
+import com.volunteer.backend.dto.ActivityParticipationRow;
+import com.volunteer.backend.dto.ActivityTypeTrendCell;
+import com.volunteer.backend.dto.PointFlowRow;
 import com.volunteer.backend.dto.SankeyLink;
 import com.volunteer.backend.dto.SankeyNode;
+import com.volunteer.backend.dto.SignupHeatmapCell;
+import com.volunteer.backend.dto.VolunteerMonthRow;
 import com.volunteer.backend.dto.response.ActivityParticipationBubbleResponse;
 import com.volunteer.backend.dto.response.ActivityTypeTrendResponse;
 import com.volunteer.backend.dto.response.DashboardKPIResponse;
 import com.volunteer.backend.dto.response.PointFlowSankeyResponse;
 import com.volunteer.backend.dto.response.VolunteerActivityHeatmapResponse;
+import com.volunteer.backend.dto.response.VolunteerCohortRetentionResponse;
 import com.volunteer.backend.dto.response.VolunteerGrowthRadarResponse;
 import com.volunteer.backend.dto.response.VolunteerRetentionResponse;
 import com.volunteer.backend.entity.Activity;
-import com.volunteer.backend.entity.PointChangeRecord;
+import com.volunteer.backend.entity.KpiAggregate;
 import com.volunteer.backend.entity.SignupRecord;
+import com.volunteer.backend.entity.StatDailyRollup;
 import com.volunteer.backend.entity.Volunteer;
-import com.volunteer.backend.enums.ActivityStatus;
 import com.volunteer.backend.enums.ActivityType;
 import com.volunteer.backend.enums.PointChangeType;
 import com.volunteer.backend.repository.ActivityRepository;
@@ -39,19 +55,60 @@ public class StatisticsService {
     private final ActivityRepository activityRepository;
     private final PointChangeRecordRepository pointChangeRecordRepository;
     private final VolunteerRepository volunteerRepository;
+    private final KpiAggregateService kpiAggregateService;
+    private final VolunteerRadarCache volunteerRadarCache;
+    private final StatRollupService statRollupService;
+    private final AnalyticsSnapshot analyticsSnapshot;
 
     // @formatter:off
     public StatisticsService(
         SignupRecordRepository signupRecordRepository,
         ActivityRepository activityRepository,
         PointChangeRecordRepository pointChangeRecordRepository,
-        VolunteerRepository volunteerRepository
+        VolunteerRepository volunteerRepository,
+        KpiAggregateService kpiAggregateService,
+        VolunteerRadarCache volunteerRadarCache,
+        StatRollupService statRollupService,
+        AnalyticsSnapshot analyticsSnapshot
     ) {
         // @formatter:on
         this.signupRecordRepository = signupRecordRepository;
         this.activityRepository = activityRepository;
         this.pointChangeRecordRepository = pointChangeRecordRepository;
         this.volunteerRepository = volunteerRepository;
+        this.kpiAggregateService = kpiAggregateService;
+        this.volunteerRadarCache = volunteerRadarCache;
+        this.statRollupService = statRollupService;
+        this.analyticsSnapshot = analyticsSnapshot;
+    }
+
+    // 年度图表中 [start, cutoff) 读每日汇总，[cutoff, end) 仍查明细表
+    // 当天的数据要到次日凌晨才会汇总；汇总有缺口时返回 start，整段都查明细表
+    private LocalDate rollupCutoff(LocalDate start, LocalDate end) {
+        if (!statRollupService.isEnabled()) {
+            return start;
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate cutoff = end.isBefore(today) ? end : today;
+        // 凌晨定时任务跑完之前，昨天还没有汇总
+        for (int i = 0; i < 2 && cutoff.isAfter(start); i++, cutoff = cutoff.minusDays(1)) {
+            if (statRollupService.isCovered(start, cutoff)) {
+                return cutoff;
+            }
+        }
+        return start;
+    }
+
+    private void addPointFlows(Map<PointChangeType, double[]> flows, List<PointFlowRow> rows) {
+        for (PointFlowRow row : rows) {
+            if (row.getChangeType() == null) {
+                continue;
+            }
+            double[] flow = flows.computeIfAbsent(row.getChangeType(), t -> new double[2]);
+            flow[0] += row.getPointsEarned() != null ? row.getPointsEarned() : 0.0;
+            flow[1] += row.getPointsSpent() != null ? row.getPointsSpent() : 0.0;
+        }
     }
 
     private <T extends Number> double mean(List<T> values) {
@@ -82,53 +139,21 @@ public class StatisticsService {
     }
 
     public DashboardKPIResponse getDashboardKPI() {
-        List<SignupRecord> allSignupRecords = signupRecordRepository.findAll();
-        List<Activity> allActivities = activityRepository.findAll();
-        List<PointChangeRecord> allPointRecords = pointChangeRecordRepository.findAll();
-
-        Double totalServiceHours = 0.0;
-        for (SignupRecord record : allSignupRecords) {
-            if (record.getActualHours() != null) {
-                totalServiceHours += record.getActualHours();
-            }
-        }
-
-        Integer totalActivities = 0;
-        for (Activity activity : allActivities) {
-            if (activity.getStatus() == ActivityStatus.COMPLETED) {
-                totalActivities++;
-            }
-        }
+        KpiAggregate aggregate = kpiAggregateService.getAggregate();
 
+        // 活跃志愿者是滑动窗口指标（近6个月内报名且已记录服务时长），无法增量维护，直接走索引范围计数
         LocalDateTime sixMonthsAgo = LocalDateTime.now().minusMonths(6);
-        Integer activeVolunteers = 0;
-        Map<Long, Boolean> volunteerActivityMap = new HashMap<>();
-        for (SignupRecord record : allSignupRecords) {
-            // 用 actualHours 判断志愿者是否真正完成了活动
-            if (record.getActualHours() != null && record.getActualHours() > 0) {
-                // 检查活动完成时间是否在6个月内
-                if (record.getSignupTime() != null && record.getSignupTime().isAfter(sixMonthsAgo)) {
-                    if (!volunteerActivityMap.containsKey(record.getVolunteerId())) {
-                        volunteerActivityMap.put(record.getVolunteerId(), true);
-                        activeVolunteers++;
-                    }
-                }
-            }
-        }
+        Long activeVolunteers = signupRecordRepository.countActiveVolunteersSince(sixMonthsAgo);
 
         // 总积分发放包括活动发放、系统奖励以及管理员调整的正积分
-        Double totalPointsReleased = 0.0;
-        for (PointChangeRecord record : allPointRecords) {
-            if (record.getChangePoints() != null && record.getChangePoints() > 0) {
-                if (record.getChangeType() == PointChangeType.ACTIVITY_EARN
-                        || record.getChangeType() == PointChangeType.SYSTEM_BONUS
-                        || record.getChangeType() == PointChangeType.ADMIN_ADJUST) {
-                    totalPointsReleased += record.getChangePoints();
-                }
-            }
-        }
-
-        return new DashboardKPIResponse(totalServiceHours, totalActivities, activeVolunteers, totalPointsReleased);
+        // @formatter:off
+        return new DashboardKPIResponse(
+            aggregate.getTotalServiceHours().doubleValue(),
+            aggregate.getCompletedActivities(),
+            activeVolunteers.intValue(),
+            aggregate.getTotalPointsReleased()
+        );
+        // @formatter:on
     }
 
     public VolunteerActivityHeatmapResponse getVolunteerActivityHeatmap(Integer year) {
@@ -155,23 +180,45 @@ public class StatisticsService {
             data.add(row);
         }
 
-        List<SignupRecord> allRecords = signupRecordRepository.findAll();
-        for (SignupRecord record : allRecords) {
-            if (record.getSignupTime() == null) {
-                continue;
+        if (analyticsSnapshot.isEnabled()) {
+            int[][] counts = analyticsSnapshot.heatmap(year);
+            for (int i = 0; i < 12; i++) {
+                for (int j = 0; j < 7; j++) {
+                    data.get(i).set(j, counts[i][j]);
+                }
             }
+            return new VolunteerActivityHeatmapResponse(months, weekdays, data);
+        }
 
-            LocalDateTime signupTime = record.getSignupTime();
-            int signupYear = signupTime.getYear();
-            if (year != null && signupYear != year) {
-                continue;
+        List<SignupHeatmapCell> cells;
+        if (year != null) {
+            LocalDate start = LocalDate.of(year, 1, 1);
+            LocalDate end = start.plusYears(1);
+            LocalDate cutoff = rollupCutoff(start, end);
+
+            // 每日汇总里一年最多 366 行合计
+            for (StatDailyRollup day : statRollupService.findDayTotals(start, cutoff)) {
+                int month = day.getStatDate().getMonthValue();
+                int weekdayIndex = day.getStatDate().getDayOfWeek().getValue() - 1;
+                int count = data.get(month - 1).get(weekdayIndex);
+                data.get(month - 1).set(weekdayIndex, count + day.getSignupCount().intValue());
             }
 
-            int month = signupTime.getMonthValue();
-            int weekdayIndex = signupTime.getDayOfWeek().ordinal();
+            if (cutoff.isBefore(end)) {
+                cells = signupRecordRepository.aggregateHeatmapBetween(cutoff.atStartOfDay(), end.atStartOfDay());
+            } else {
+                cells = Collections.emptyList();
+            }
+        } else {
+            cells = signupRecordRepository.aggregateHeatmap();
+        }
 
+        // 数据库只返回最多 12 × 7 个格子
+        for (SignupHeatmapCell cell : cells) {
+            int month = cell.getMonth();
+            int weekdayIndex = cell.getWeekday();
             int count = data.get(month - 1).get(weekdayIndex);
-            data.get(month - 1).set(weekdayIndex, count + 1);
+            data.get(month - 1).set(weekdayIndex, count + cell.getSignupCount().intValue());
         }
 
         return new VolunteerActivityHeatmapResponse(months, weekdays, data);
@@ -196,32 +243,39 @@ public class StatisticsService {
         targetMap.put("商品兑换", 0.0);
         targetMap.put("管理员扣除", 0.0);
 
-        List<PointChangeRecord> allRecords = pointChangeRecordRepository.findAll();
-        for (PointChangeRecord record : allRecords) {
-            if (record.getChangeTime() == null) {
-                continue;
-            }
-
-            int recordYear = record.getChangeTime().getYear();
-            if (year != null && recordYear != year) {
-                continue;
+        // flow[0] 为正向积分之和，flow[1] 为负向积分的绝对值之和
+        Map<PointChangeType, double[]> flows = new EnumMap<>(PointChangeType.class);
+        if (analyticsSnapshot.isEnabled()) {
+            double[][] snapshotFlows = analyticsSnapshot.pointFlow(year);
+            for (PointChangeType type : PointChangeType.values()) {
+                flows.put(type, snapshotFlows[type.ordinal()]);
             }
+        } else if (year != null) {
+            LocalDate start = LocalDate.of(year, 1, 1);
+            LocalDate end = start.plusYears(1);
+            LocalDate cutoff = rollupCutoff(start, end);
 
-            if (record.getChangeType() == PointChangeType.ACTIVITY_EARN && record.getChangePoints() != null) {
-                sourceMap.put("活动服务", sourceMap.get("活动服务") + record.getChangePoints());
-            } else if (record.getChangeType() == PointChangeType.ADMIN_ADJUST && record.getChangePoints() != null) {
-                if (record.getChangePoints() > 0) {
-                    sourceMap.put("管理员添加", sourceMap.get("管理员添加") + record.getChangePoints());
-                } else {
-                    targetMap.put("管理员扣除", targetMap.get("管理员扣除") + Math.abs(record.getChangePoints()));
-                }
-            } else if (record.getChangeType() == PointChangeType.SYSTEM_BONUS && record.getChangePoints() != null) {
-                sourceMap.put("系统奖励", sourceMap.get("系统奖励") + record.getChangePoints());
-            } else if (record.getChangeType() == PointChangeType.EXCHANGE_USE && record.getChangePoints() != null) {
-                targetMap.put("商品兑换", targetMap.get("商品兑换") + Math.abs(record.getChangePoints()));
+            addPointFlows(flows, statRollupService.sumPointFlow(start, cutoff));
+            if (cutoff.isBefore(end)) {
+                addPointFlows(flows,
+                        pointChangeRecordRepository.aggregatePointFlowBetween(cutoff.atStartOfDay(), end.atStartOfDay()));
             }
+        } else {
+            addPointFlows(flows, pointChangeRecordRepository.aggregatePointFlow());
         }
 
+        double[] none = new double[2];
+        double[] activityEarn = flows.getOrDefault(PointChangeType.ACTIVITY_EARN, none);
+        double[] adminAdjust = flows.getOrDefault(PointChangeType.ADMIN_ADJUST, none);
+        double[] systemBonus = flows.getOrDefault(PointChangeType.SYSTEM_BONUS, none);
+        double[] exchangeUse = flows.getOrDefault(PointChangeType.EXCHANGE_USE, none);
+
+        sourceMap.put("活动服务", activityEarn[0] - activityEarn[1]);
+        sourceMap.put("管理员添加", adminAdjust[0]);
+        targetMap.put("管理员扣除", adminAdjust[1]);
+        sourceMap.put("系统奖励", systemBonus[0] - systemBonus[1]);
+        targetMap.put("商品兑换", exchangeUse[0] + exchangeUse[1]);
+
         List<SankeyLink> links = new ArrayList<>();
         for (Map.Entry<String, Double> entry : sourceMap.entrySet()) {
             if (entry.getValue() > 0) {
@@ -252,50 +306,44 @@ public class StatisticsService {
         return new PointFlowSankeyResponse(finalNodes, links);
     }
 
-    public ActivityParticipationBubbleResponse getActivityParticipationBubble(Integer year) {
-        List<Activity> activities = activityRepository.findAll();
-        List<SignupRecord> allRecords = signupRecordRepository.findAll();
-
-        List<ActivityParticipationBubble> bubbles = new ArrayList<>();
-        for (Activity activity : activities) {
-            if (activity.getStartTime() == null) {
-                continue;
-            }
-
-            int activityYear = activity.getStartTime().getYear();
-            if (year != null && activityYear != year) {
-                continue;
-            }
+    // @formatter:off
+    public ActivityParticipationBubbleResponse getActivityParticipationBubble(
+        Integer year,
+        Integer limit,
+        Integer minParticipants
+    ) {
+        // @formatter:on
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("返回活动数必须大于0");
+        }
+        if (minParticipants != null && minParticipants <= 0) {
+            throw new IllegalArgumentException("最少参与人数必须大于0");
+        }
 
-            Integer participantCount = 0;
-            Integer totalHours = 0;
-            Double totalPoints = 0.0;
+        Pageable pageable = limit != null ? PageRequest.of(0, limit) : Pageable.unpaged();
+        long min = minParticipants != null ? minParticipants : 1L;
 
-            for (SignupRecord record : allRecords) {
-                if (record.getActivityId().equals(activity.getId())) {
-                    participantCount++;
-                    if (record.getActualHours() != null) {
-                        totalHours += record.getActualHours();
-                    }
-                    if (record.getPoints() != null) {
-                        totalPoints += record.getPoints();
-                    }
-                }
-            }
+        List<ActivityParticipationRow> rows;
+        if (year != null) {
+            LocalDateTime start = LocalDateTime.of(year, 1, 1, 0, 0);
+            rows = signupRecordRepository.aggregateParticipationBetween(start, start.plusYears(1), min, pageable);
+        } else {
+            rows = signupRecordRepository.aggregateParticipation(min, pageable);
+        }
 
-            if (participantCount > 0) {
-                String activityType = activity.getType() != null ? activity.getType().getDescription() : "未知";
-                // @formatter:off
-                bubbles.add(new ActivityParticipationBubble(
-                    activity.getTitle(),
-                    activity.getStartTime(),
-                    activityType,
-                    participantCount,
-                    totalHours,
-                    totalPoints
-                ));
-                // @formatter:on
-            }
+        List<ActivityParticipationBubble> bubbles = new ArrayList<>();
+        for (ActivityParticipationRow row : rows) {
+            String activityType = row.getType() != null ? row.getType().getDescription() : "未知";
+            // @formatter:off
+            bubbles.add(new ActivityParticipationBubble(
+                row.getTitle(),
+                row.getStartTime(),
+                activityType,
+                row.getParticipantCount().intValue(),
+                row.getTotalHours().intValue(),
+                row.getTotalPoints()
+            ));
+            // @formatter:on
         }
 
         return new ActivityParticipationBubbleResponse(bubbles);
@@ -321,29 +369,44 @@ public class StatisticsService {
             data.add(typeData);
         }
 
-        List<Activity> allActivities = activityRepository.findAll();
-        for (Activity activity : allActivities) {
-            if (activity.getStartTime() == null) {
-                continue;
+        List<ActivityTypeTrendCell> cells;
+        if (year != null) {
+            LocalDate start = LocalDate.of(year, 1, 1);
+            LocalDate end = start.plusYears(1);
+            LocalDate cutoff = rollupCutoff(start, end);
+
+            for (StatDailyRollup day : statRollupService.findActivityTypeRows(start, cutoff)) {
+                int typeIndex = day.getActivityType().ordinal();
+                int month = day.getStatDate().getMonthValue();
+                int count = data.get(typeIndex).get(month - 1);
+                data.get(typeIndex).set(month - 1, count + day.getActivityCount().intValue());
             }
 
-            int activityYear = activity.getStartTime().getYear();
-            if (year != null && activityYear != year) {
-                continue;
+            // 尚未开始的活动也按开始时间计入，这部分总是查明细表
+            if (cutoff.isBefore(end)) {
+                cells = activityRepository.aggregateTypeTrendBetween(cutoff.atStartOfDay(), end.atStartOfDay());
+            } else {
+                cells = Collections.emptyList();
             }
+        } else {
+            cells = activityRepository.aggregateTypeTrend();
+        }
 
-            int month = activity.getStartTime().getMonthValue();
-            String typeLabel = activity.getType() != null ? activity.getType().getDescription() : "未知";
-            int typeIndex = activityTypes.indexOf(typeLabel);
-            if (typeIndex >= 0) {
-                int count = data.get(typeIndex).get(month - 1);
-                data.get(typeIndex).set(month - 1, count + 1);
+        // activityTypes 按枚举顺序生成，下标即 ordinal
+        for (ActivityTypeTrendCell cell : cells) {
+            if (cell.getActivityType() == null) {
+                continue;
             }
+            int typeIndex = cell.getActivityType().ordinal();
+            int month = cell.getMonth();
+            int count = data.get(typeIndex).get(month - 1);
+            data.get(typeIndex).set(month - 1, count + cell.getActivityCount().intValue());
         }
 
         return new ActivityTypeTrendResponse(months, activityTypes, data);
     }
 
+    @Transactional(readOnly = true)
     public VolunteerRetentionResponse getVolunteerRetention(Integer year) {
         // 如果志愿者在当月及后续月份都有活动，则在当月算作留存
         List<String> months = new ArrayList<>();
@@ -351,77 +414,162 @@ public class StatisticsService {
             months.add(i + "月");
         }
 
+        int[] active;
+        int[] retained;
+        if (analyticsSnapshot.isEnabled()) {
+            int[][] counts = analyticsSnapshot.retention(year);
+            active = counts[0];
+            retained = counts[1];
+        } else {
+            active = new int[12];
+            retained = new int[12];
+            streamRetention(year, active, retained);
+        }
+
         List<Double> retentionRates = new ArrayList<>();
         List<Integer> activeVolunteers = new ArrayList<>();
         List<Integer> retainedVolunteers = new ArrayList<>();
         List<Integer> lostVolunteers = new ArrayList<>();
         for (int i = 0; i < 12; i++) {
-            retentionRates.add(0.0);
-            activeVolunteers.add(0);
-            retainedVolunteers.add(0);
-            lostVolunteers.add(0);
+            double retentionRate = active[i] > 0 ? (retained[i] * 100.0 / active[i]) : 0.0;
+            retentionRates.add(Math.round(retentionRate * 10.0) / 10.0);
+            activeVolunteers.add(active[i]);
+            retainedVolunteers.add(retained[i]);
+            lostVolunteers.add(active[i] - retained[i]);
         }
 
-        List<SignupRecord> allRecords = signupRecordRepository.findAll();
-        Map<Long, List<Integer>> volunteerMonthsMap = new HashMap<>();
+        // @formatter:off
+        return new VolunteerRetentionResponse(
+            months,
+            retentionRates,
+            activeVolunteers,
+            retainedVolunteers,
+            lostVolunteers
+        );
+        // @formatter:on
+    }
 
-        for (SignupRecord record : allRecords) {
-            if (record.getSignupTime() == null) {
-                continue;
+    private void streamRetention(Integer year, int[] active, int[] retained) {
+        Stream<VolunteerMonthRow> rows;
+        if (year != null) {
+            LocalDateTime start = LocalDateTime.of(year, 1, 1, 0, 0);
+            rows = signupRecordRepository.streamVolunteerMonthsBetween(start, start.plusYears(1));
+        } else {
+            rows = signupRecordRepository.streamVolunteerMonths();
+        }
+
+        // 每个志愿者的参与月份压成一个 12 位掩码，第 i 位表示第 i + 1 月有报名
+        // 查询结果按 volunteerId 排序，逐行折叠即可，内存占用与数据量无关
+        try (rows) {
+            Long curVolunteerId = null;
+            long mask = 0L;
+            Iterator<VolunteerMonthRow> it = rows.iterator();
+            while (it.hasNext()) {
+                VolunteerMonthRow row = it.next();
+                if (!row.getVolunteerId().equals(curVolunteerId)) {
+                    accumulateRetention(mask, active, retained);
+                    curVolunteerId = row.getVolunteerId();
+                    mask = 0L;
+                }
+                mask |= 1L << (row.getMonthIndex() - 1);
             }
+            accumulateRetention(mask, active, retained);
+        }
+    }
 
-            int recordYear = record.getSignupTime().getYear();
-            if (year != null && recordYear != year) {
+    private void accumulateRetention(long mask, int[] active, int[] retained) {
+        for (int i = 0; i < 12; i++) {
+            if ((mask & (1L << i)) == 0) {
                 continue;
             }
+            active[i]++;
+            // 第 i 位之后还有任意一位为 1，说明后续月份还有活动
+            if ((mask >>> (i + 1)) != 0) {
+                retained[i]++;
+            }
+        }
+    }
 
-            int month = record.getSignupTime().getMonthValue();
-            Long volunteerId = record.getVolunteerId();
+    @Transactional(readOnly = true)
+    public VolunteerCohortRetentionResponse getVolunteerCohortRetention(String from, String to) {
+        // cohort 留存：按首次参与月份把志愿者分组，统计首次参与后第 k 个月仍有报名的人数
+        YearMonth toMonth = parseYearMonth(to, YearMonth.now());
+        YearMonth fromMonth = parseYearMonth(from, toMonth.minusMonths(11));
+        if (fromMonth.isAfter(toMonth)) {
+            throw new IllegalArgumentException("起始月份不能晚于结束月份");
+        }
+
+        // 每个志愿者的月份位图用一个 long 表示，所以窗口最多 64 个月
+        int span = (toMonth.getYear() - fromMonth.getYear()) * 12 + (toMonth.getMonthValue() - fromMonth.getMonthValue())
+                + 1;
+        if (span > 64) {
+            throw new IllegalArgumentException("统计区间最多支持 64 个月");
+        }
+
+        LocalDateTime start = fromMonth.atDay(1).atStartOfDay();
+        LocalDateTime end = toMonth.plusMonths(1).atDay(1).atStartOfDay();
+        int baseIndex = fromMonth.getYear() * 12 + fromMonth.getMonthValue() - 1;
+
+        int[] cohortSizes = new int[span];
+        int[][] retained = new int[span][];
+        for (int c = 0; c < span; c++) {
+            retained[c] = new int[span - c];
+        }
+
+        // 查询只返回首次参与落在窗口内的志愿者，按 volunteerId 排序，逐个折叠成月份位图
+        try (Stream<VolunteerMonthRow> rowStream = signupRecordRepository.streamCohortVolunteerMonthsBetween(start, end)) {
+            Iterator<VolunteerMonthRow> rows = rowStream.iterator();
+            VolunteerMonthRow row = rows.hasNext() ? rows.next() : null;
+            while (row != null) {
+                Long volunteerId = row.getVolunteerId();
+                long mask = 0L;
+                while (row != null && row.getVolunteerId().equals(volunteerId)) {
+                    mask |= 1L << (row.getMonthIndex() - baseIndex);
+                    row = rows.hasNext() ? rows.next() : null;
+                }
 
-            if (!volunteerMonthsMap.containsKey(volunteerId)) {
-                volunteerMonthsMap.put(volunteerId, new ArrayList<>());
-            }
-            volunteerMonthsMap.get(volunteerId).add(month);
-        }
-
-        for (int month = 1; month <= 12; month++) {
-            int active = 0;
-            int retained = 0;
-
-            for (Map.Entry<Long, List<Integer>> entry : volunteerMonthsMap.entrySet()) {
-                List<Integer> monthsParticipated = entry.getValue();
-                if (monthsParticipated.contains(month)) {
-                    active++;
-                    boolean hasFutureActivity = false;
-                    for (int futureMonth = month + 1; futureMonth <= 12; futureMonth++) {
-                        if (monthsParticipated.contains(futureMonth)) {
-                            hasFutureActivity = true;
-                            break;
-                        }
-                    }
-                    if (hasFutureActivity) {
-                        retained++;
+                int cohort = Long.numberOfTrailingZeros(mask);
+                cohortSizes[cohort]++;
+                long shifted = mask >>> cohort;
+                for (int k = 0; k < span - cohort; k++) {
+                    if ((shifted & (1L << k)) != 0) {
+                        retained[cohort][k]++;
                     }
                 }
             }
+        }
+
+        List<String> cohorts = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        List<List<Integer>> retainedVolunteers = new ArrayList<>();
+        List<List<Double>> retentionRates = new ArrayList<>();
+        for (int c = 0; c < span; c++) {
+            cohorts.add(fromMonth.plusMonths(c).toString());
+            sizes.add(cohortSizes[c]);
 
-            int lost = active - retained;
-            double retentionRate = active > 0 ? (retained * 100.0 / active) : 0.0;
-            retentionRates.set(month - 1, Math.round(retentionRate * 10.0) / 10.0);
-            activeVolunteers.set(month - 1, active);
-            retainedVolunteers.set(month - 1, retained);
-            lostVolunteers.set(month - 1, lost);
+            List<Integer> counts = new ArrayList<>();
+            List<Double> rates = new ArrayList<>();
+            for (int k = 0; k < retained[c].length; k++) {
+                counts.add(retained[c][k]);
+                double rate = cohortSizes[c] > 0 ? (retained[c][k] * 100.0 / cohortSizes[c]) : 0.0;
+                rates.add(Math.round(rate * 10.0) / 10.0);
+            }
+            retainedVolunteers.add(counts);
+            retentionRates.add(rates);
         }
 
-        // @formatter:off
-        return new VolunteerRetentionResponse(
-            months,
-            retentionRates,
-            activeVolunteers,
-            retainedVolunteers,
-            lostVolunteers
-        );
-        // @formatter:on
+        return new VolunteerCohortRetentionResponse(cohorts, sizes, retainedVolunteers, retentionRates);
+    }
+
+    private YearMonth parseYearMonth(String value, YearMonth defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return YearMonth.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("月份格式不正确，请使用 yyyy-MM 格式");
+        }
     }
 
     private Integer calculateConsecutiveActiveMonths(Set<Integer> months) {
@@ -457,13 +605,11 @@ public class StatisticsService {
         return maxConsecutive;
     }
 
-    private Integer countImportantActivities(List<SignupRecord> records, ActivityRepository activityRepository) {
+    private Integer countImportantActivities(List<SignupRecord> records, Map<Long, Activity> activityMap) {
         // 重要活动：每小时积分数大于等于 5
         int count = 0;
         for (SignupRecord record : records) {
-            Optional<Activity> a = activityRepository.findById(record.getActivityId());
-            Activity activity = a != null ? a.get() : null;
-
+            Activity activity = activityMap.get(record.getActivityId());
             if (activity != null && activity.getPointsPerHour() != null && activity.getPointsPerHour() >= 5) {
                 count++;
             }
@@ -538,8 +684,24 @@ public class StatisticsService {
         }
         Volunteer volunteer = v.get();
 
+        VolunteerGrowthRadarResponse cached = volunteerRadarCache.get(volunteerId);
+        if (cached != null) {
+            return withVolunteerIdentity(cached, volunteer);
+        }
+        long generation = volunteerRadarCache.currentGeneration(volunteerId);
+
         List<SignupRecord> records = signupRecordRepository.findByVolunteerId(volunteerId);
 
+        // 一次性批量加载这些报名记录涉及的活动，避免逐条 findById
+        Set<Long> activityIds = new HashSet<>();
+        for (SignupRecord record : records) {
+            activityIds.add(record.getActivityId());
+        }
+        Map<Long, Activity> activityMap = new HashMap<>();
+        for (Activity activity : activityRepository.findAllById(activityIds)) {
+            activityMap.put(activity.getId(), activity);
+        }
+
         Integer totalActivities = records.size();
         Integer totalHours = 0;
         Double totalPoints = 0.0;
@@ -561,9 +723,7 @@ public class StatisticsService {
                 totalPoints += record.getPoints();
             }
 
-            Optional<Activity> a = activityRepository.findById(record.getActivityId());
-            Activity activity = a != null ? a.get() : null;
-
+            Activity activity = activityMap.get(record.getActivityId());
             if (activity != null) {
                 if (activity.getType() != null) {
                     activityTypes.add(activity.getType());
@@ -607,7 +767,7 @@ public class StatisticsService {
         Double serviceStability = avgServiceHours > 0 ? Math.max(0, 1 - (serviceHoursStdDev / avgServiceHours)) * 100
                 : 0.0;
 
-        Integer importantActivities = countImportantActivities(records, activityRepository);
+        Integer importantActivities = countImportantActivities(records, activityMap);
         Double importantActivityRatio = totalActivities > 0 ? (importantActivities * 100.0 / totalActivities) : 0.0;
 
         Double activityTypeDiversity = totalActivityTypes > 0 ? (distinctActivityTypes * 100.0 / totalActivityTypes)
@@ -631,7 +791,7 @@ public class StatisticsService {
                 + (activityCompletionRate * 0.25) + (activityTypeDiversity * 0.15));
 
         // @formatter:off
-        return new VolunteerGrowthRadarResponse(
+        VolunteerGrowthRadarResponse response = new VolunteerGrowthRadarResponse(
             volunteer.getName(),
             volunteer.getPhone(),
             totalActivities,
@@ -651,5 +811,33 @@ public class StatisticsService {
             pointsPerHour
         );
         // @formatter:on
+
+        volunteerRadarCache.put(volunteerId, response, generation);
+        return response;
+    }
+
+    private VolunteerGrowthRadarResponse withVolunteerIdentity(VolunteerGrowthRadarResponse cached, Volunteer volunteer) {
+        // 姓名和电话不参与计算，每次用最新的志愿者信息覆盖，缓存里的对象本身不修改
+        // @formatter:off
+        return new VolunteerGrowthRadarResponse(
+            volunteer.getName(),
+            volunteer.getPhone(),
+            cached.getTotalActivities(),
+            cached.getTotalHours(),
+            cached.getTotalPoints(),
+            cached.getActivityParticipation(),
+            cached.getServiceQuality(),
+            cached.getContinuity(),
+            cached.getInitiative(),
+            cached.getCompletedActivities(),
+            cached.getDistinctActivityTypes(),
+            cached.getMonthsParticipated(),
+            cached.getConsecutiveActiveMonths(),
+            cached.getActivityCompletionRate(),
+            cached.getOnTimeCompletionRate(),
+            cached.getEarlySignupRate(),
+            cached.getPointsPerHour()
+        );
+        // @formatter:on
     }
 }
@@ -23,18 +23,21 @@ public class UserService {
     private final VolunteerRepository volunteerRepository;
     private final SignupRecordRepository signupRecordRepository;
     private final PasswordEncoder passwordEncoder;
+    private final VolunteerSignupStatusCache volunteerSignupStatusCache;
 
     // @formatter:off
     public UserService(
         UserRepository userRepository,
         VolunteerRepository volunteerRepository,
         SignupRecordRepository signupRecordRepository,
-        PasswordEncoder passwordEncoder
+        PasswordEncoder passwordEncoder,
+        VolunteerSignupStatusCache volunteerSignupStatusCache
     ) {
         this.userRepository = userRepository;
         this.volunteerRepository = volunteerRepository;
         this.signupRecordRepository = signupRecordRepository;
         this.passwordEncoder = passwordEncoder;
+        this.volunteerSignupStatusCache = volunteerSignupStatusCache;
     }
     // @formatter:on
 
@@ -189,6 +192,7 @@ public class UserService {
         Volunteer volunteer = v.get();
         volunteer.markDeleted();
         volunteerRepository.save(volunteer);
+        volunteerSignupStatusCache.invalidateUser(userId);
     }
 
     public void changePassword(Long userId, String oldPassword, String newPassword) {
@@ -0,0 +1,77 @@
+package com.volunteer.backend.service;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.volunteer.backend.dto.response.VolunteerGrowthRadarResponse;
+
+/**
+ * 志愿者成长雷达图缓存
+ * <p>
+ * 只有该志愿者的报名记录或积分流水发生变化时才失效；近期活跃度依赖当前月份，跨月后缓存也视为过期
+ * </p>
+ */
+@Component
+public class VolunteerRadarCache {
+    private record Entry(VolunteerGrowthRadarResponse response, YearMonth computedMonth) {
+    }
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // 每个志愿者各自的失效次数，计算期间该志愿者发生过失效的结果不写回缓存，避免把旧数据放进去；
+    // 其他志愿者的失效不影响这里，写入频繁时缓存也能填满
+    private final ConcurrentHashMap<Long, Long> generations = new ConcurrentHashMap<>();
+
+    public long currentGeneration(Long volunteerId) {
+        return generations.getOrDefault(volunteerId, 0L);
+    }
+
+    public VolunteerGrowthRadarResponse get(Long volunteerId) {
+        Entry entry = entries.get(volunteerId);
+        if (entry == null || !entry.computedMonth().equals(YearMonth.now())) {
+            return null;
+        }
+        return entry.response();
+    }
+
+    public void put(Long volunteerId, VolunteerGrowthRadarResponse response, long expectedGeneration) {
+        if (currentGeneration(volunteerId) != expectedGeneration) {
+            return;
+        }
+        Entry entry = new Entry(response, YearMonth.now());
+        entries.put(volunteerId, entry);
+        // 检查和写入之间发生了失效，撤回刚写入的结果
+        if (currentGeneration(volunteerId) != expectedGeneration) {
+            entries.remove(volunteerId, entry);
+        }
+    }
+
+    public void invalidate(Long volunteerId) {
+        evict(volunteerId);
+        // 事务提交前其他请求仍可能读到旧数据并写回缓存，所以提交后再清一次
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(volunteerId);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll(Collection<Long> volunteerIds) {
+        for (Long volunteerId : volunteerIds) {
+            invalidate(volunteerId);
+        }
+    }
+
+    private void evict(Long volunteerId) {
+        generations.merge(volunteerId, 1L, Long::sum);
+        entries.remove(volunteerId);
+    }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import com.volunteer.backend.dto.response.PageResponse;
@@ -20,12 +21,15 @@ public class VolunteerService {
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     private final PointChangeRecordRepository pointChangeRecordRepository;
+    private final ApproximateCountCache approximateCountCache;
 
     // @formatter:off
     public VolunteerService(
-        PointChangeRecordRepository pointChangeRecordRepository
+        PointChangeRecordRepository pointChangeRecordRepository,
+        ApproximateCountCache approximateCountCache
     ) {
         this.pointChangeRecordRepository = pointChangeRecordRepository;
+        this.approximateCountCache = approximateCountCache;
     }
     // @formatter:on
 
@@ -44,12 +48,45 @@ public class VolunteerService {
         }
     }
 
-    public PageResponse<PointChangeRecordResponse> getPointChangeRecords(Long volunteerId, int page, int size) {
+    // slice 为 true 时不做 COUNT，总数取后台缓存的近似值
+    // @formatter:off
+    public PageResponse<PointChangeRecordResponse> getPointChangeRecords(
+        Long volunteerId,
+        int page,
+        int size,
+        boolean slice
+    ) {
+        // @formatter:on
         Pageable pageable = PageRequest.of(page, size);
+
+        if (slice) {
+            Slice<PointChangeRecord> recordSlice = pointChangeRecordRepository
+                    .findSliceByVolunteerIdOrderByChangeTimeDesc(volunteerId, pageable);
+            Long total = approximateCountCache.get("volunteer-points:" + volunteerId,
+                    () -> pointChangeRecordRepository
+                            .findByVolunteerIdOrderByChangeTimeDesc(volunteerId, PageRequest.of(0, 1))
+                            .getTotalElements());
+            return new PageResponse<>(buildResponses(recordSlice.getContent()), page, size, recordSlice.hasNext(),
+                    total);
+        }
+
         Page<PointChangeRecord> recordPage = pointChangeRecordRepository
                 .findByVolunteerIdOrderByChangeTimeDesc(volunteerId, pageable);
 
-        List<PointChangeRecord> records = recordPage.getContent();
+        List<PointChangeRecordResponse> responseList = buildResponses(recordPage.getContent());
+
+        // @formatter:off
+        return new PageResponse<>(
+            responseList,
+            recordPage.getNumber(),
+            recordPage.getSize(),
+            recordPage.getTotalElements(),
+            recordPage.getTotalPages()
+        );
+        // @formatter:on
+    }
+
+    private List<PointChangeRecordResponse> buildResponses(List<PointChangeRecord> records) {
         List<PointChangeRecordResponse> responseList = new ArrayList<>();
         for (PointChangeRecord record : records) {
             String formattedTime = record.getChangeTime().format(DATETIME_FORMATTER);
@@ -65,15 +102,6 @@ public class VolunteerService {
             );
             // @formatter:on
         }
-
-        // @formatter:off
-        return new PageResponse<>(
-            responseList,
-            recordPage.getNumber(),
-            recordPage.getSize(),
-            recordPage.getTotalElements(),
-            recordPage.getTotalPages()
-        );
-        // @formatter:on
+        return responseList;
     }
 }
@@ -0,0 +1,232 @@
+package com.volunteer.backend.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.volunteer.backend.dto.SignupStatusRow;
+import com.volunteer.backend.entity.Volunteer;
+import com.volunteer.backend.enums.SignupStatus;
+import com.volunteer.backend.enums.VolunteerStatus;
+import com.volunteer.backend.repository.SignupRecordRepository;
+import com.volunteer.backend.repository.VolunteerRepository;
+
+/**
+ * 登录用户在各活动上的报名状态
+ * <p>
+ * 活动列表和热门活动给登录用户叠加报名状态时使用。按用户缓存对应的志愿者和该志愿者全部报名记录的 活动 id → 状态，第一次访问时加载，
+ * 之后由报名、取消报名和管理员修改报名记录在事务提交后原地更新。志愿者身份变化（申请、审核、注销）时整条作废。
+ * 按最近访问淘汰，只保留活跃用户
+ * </p>
+ */
+@Component
+public class VolunteerSignupStatusCache {
+    private static final SignupStatus[] STATUSES = SignupStatus.values();
+
+    // 活动 id → 报名状态的开放寻址表，键是原始 long，值是枚举序号 + 1（0 表示空槽）；报名记录不会被单独删除，所以只有插入和覆盖
+    private static final class StatusTable {
+        private long[] keys;
+        private byte[] values;
+        private int size;
+
+        StatusTable(int expected) {
+            int capacity = 8;
+            while (capacity < expected * 2) {
+                capacity <<= 1;
+            }
+            keys = new long[capacity];
+            values = new byte[capacity];
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        SignupStatus get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); values[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return STATUSES[values[i] - 1];
+                }
+            }
+            return null;
+        }
+
+        void put(long key, SignupStatus status) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == 0) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = (byte) (status.ordinal() + 1);
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            byte[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new byte[oldValues.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != 0) {
+                    put(oldKeys[i], STATUSES[oldValues[i] - 1]);
+                }
+            }
+        }
+    }
+
+    // volunteerId 为 null 表示该用户不是已认证的志愿者，没有报名状态
+    private record Entry(Long volunteerId, StatusTable statuses) {
+    }
+
+    private final VolunteerRepository volunteerRepository;
+    private final SignupRecordRepository signupRecordRepository;
+
+    // 两个 Map 都由 entries 的锁保护
+    private final Map<Long, Entry> entries;
+    private final Map<Long, Long> userIdsByVolunteer = new HashMap<>();
+
+    // 每次更新或失效都会递增，加载期间发生过变化的结果不写回缓存
+    private final AtomicLong generation = new AtomicLong();
+
+    // @formatter:off
+    public VolunteerSignupStatusCache(
+        VolunteerRepository volunteerRepository,
+        SignupRecordRepository signupRecordRepository,
+        @Value("${activity.signup-status-cache.max-entries:4096}") int maxEntries
+    ) {
+        // @formatter:on
+        this.volunteerRepository = volunteerRepository;
+        this.signupRecordRepository = signupRecordRepository;
+        int capacity = Math.max(maxEntries, 1);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                if (eldest.getValue().volunteerId() != null) {
+                    userIdsByVolunteer.remove(eldest.getValue().volunteerId());
+                }
+                return true;
+            }
+        };
+    }
+
+    // 返回用户在给定活动上的报名状态，没有报名的活动不在结果中
+    public Map<Long, SignupStatus> getStatuses(Long userId, Collection<Long> activityIds) {
+        Map<Long, SignupStatus> result = new HashMap<>();
+        if (userId == null || activityIds.isEmpty()) {
+            return result;
+        }
+
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry != null) {
+                collect(entry, activityIds, result);
+                return result;
+            }
+        }
+
+        long expectedGeneration = generation.get();
+        Entry loaded = load(userId);
+        // 放进缓存之后 update() 会在 entries 的锁里原地修改这张表，所以先在发布之前读出结果
+        collect(loaded, activityIds, result);
+        synchronized (entries) {
+            if (generation.get() == expectedGeneration) {
+                entries.put(userId, loaded);
+                if (loaded.volunteerId() != null) {
+                    userIdsByVolunteer.put(loaded.volunteerId(), userId);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void collect(Entry entry, Collection<Long> activityIds, Map<Long, SignupStatus> result) {
+        if (entry.volunteerId() == null) {
+            return;
+        }
+        for (Long activityId : activityIds) {
+            SignupStatus status = entry.statuses().get(activityId);
+            if (status != null) {
+                result.put(activityId, status);
+            }
+        }
+    }
+
+    private Entry load(Long userId) {
+        Optional<Volunteer> v = volunteerRepository.findByUserIdAndDeletedFalse(userId);
+        if (v.isEmpty() || v.get().getStatus() != VolunteerStatus.CERTIFIED) {
+            return new Entry(null, null);
+        }
+        Long volunteerId = v.get().getId();
+        List<SignupStatusRow> rows = signupRecordRepository.findStatusesByVolunteerId(volunteerId);
+        StatusTable statuses = new StatusTable(rows.size());
+        for (SignupStatusRow row : rows) {
+            statuses.put(row.getActivityId(), row.getStatus());
+        }
+        return new Entry(volunteerId, statuses);
+    }
+
+    // 报名记录状态变化，在调用方事务提交后写入
+    public void update(Long volunteerId, Long activityId, SignupStatus status) {
+        generation.incrementAndGet();
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            synchronized (entries) {
+                Long userId = userIdsByVolunteer.get(volunteerId);
+                Entry entry = userId != null ? entries.get(userId) : null;
+                if (entry != null && volunteerId.equals(entry.volunteerId())) {
+                    entry.statuses().put(activityId, status);
+                }
+            }
+        });
+    }
+
+    // 志愿者身份变化时调用
+    public void invalidateUser(Long userId) {
+        evict(userId);
+        afterCommit(() -> evict(userId));
+    }
+
+    private void evict(Long userId) {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            Entry entry = entries.remove(userId);
+            if (entry != null && entry.volunteerId() != null) {
+                userIdsByVolunteer.remove(entry.volunteerId());
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
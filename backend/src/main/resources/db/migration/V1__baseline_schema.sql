@@ -0,0 +1,148 @@
+-- 基线结构：与引入迁移之前 Hibernate 按实体生成的 MySQL 表结构一致
+
+create table activity (
+    cur_participants integer not null,
+    max_participants integer,
+    points_per_hour float(53) not null,
+    create_time datetime(6) not null,
+    end_time datetime(6) not null,
+    id bigint not null auto_increment,
+    start_time datetime(6) not null,
+    title varchar(100) not null,
+    location varchar(200) not null,
+    description TEXT,
+    status enum ('CANCELLED','COMPLETED','CONFIRMED','ONGOING','RECRUITING') not null,
+    type enum ('CHILDREN_TUTORING','COMMUNITY_SERVICE','CULTURAL_EVENTS','DISABILITIES_SUPPORT','ELDERLY_CARE','ENVIRONMENTAL_PROTECTION','HEALTH_PROMOTION','OTHER') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table exchange_record (
+    total_points float(53) not null,
+    id bigint not null auto_increment,
+    number bigint not null,
+    order_time datetime(6) not null,
+    process_time datetime(6),
+    product_id bigint not null,
+    volunteer_id bigint not null,
+    note varchar(200),
+    recv_info varchar(200),
+    status enum ('CANCELLED','COMPLETED','PROCESSING','REJECTED','REVIEWING') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table point_change_record (
+    balance_after float(53),
+    change_points float(53) not null,
+    change_time datetime(6) not null,
+    id bigint not null auto_increment,
+    related_record_id bigint,
+    volunteer_id bigint not null,
+    note varchar(200) not null,
+    reason varchar(200) not null,
+    change_type enum ('ACTIVITY_EARN','ADMIN_ADJUST','EXCHANGE_USE','SYSTEM_BONUS') not null,
+    related_record_type enum ('EXCHANGE','SIGNUP'),
+    primary key (id)
+) engine=InnoDB;
+
+create table product (
+    price float(53) not null,
+    sort_weight integer not null,
+    create_time datetime(6) not null,
+    id bigint not null auto_increment,
+    stock bigint not null,
+    update_time datetime(6),
+    name varchar(50) not null,
+    image_url varchar(200),
+    description TEXT,
+    category enum ('BOOKS','COUPON','DAILY_NECESSITIES','FOOD','OTHER','STATIONARY') not null,
+    status enum ('AVAILABLE','DELETED','SOLD_OUT') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table signup_record (
+    actual_hours integer,
+    points float(53),
+    activity_id bigint not null,
+    id bigint not null auto_increment,
+    signup_time datetime(6) not null,
+    update_time datetime(6),
+    volunteer_end_time datetime(6),
+    volunteer_id bigint not null,
+    volunteer_start_time datetime(6),
+    note varchar(200),
+    status enum ('CANCELLED','CONFIRMED','PARTICIPATED','REJECTED','REVIEWING','UNARRIVED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table stat_daily_rollup (
+    points_earned float(53) not null,
+    points_spent float(53) not null,
+    stat_date date not null,
+    activity_count bigint not null,
+    completed_hours bigint not null,
+    distinct_volunteers bigint not null,
+    id bigint not null auto_increment,
+    rollup_time datetime(6) not null,
+    signup_count bigint not null,
+    activity_type enum ('CHILDREN_TUTORING','COMMUNITY_SERVICE','CULTURAL_EVENTS','DISABILITIES_SUPPORT','ELDERLY_CARE','ENVIRONMENTAL_PROTECTION','HEALTH_PROMOTION','OTHER'),
+    change_type enum ('ACTIVITY_EARN','ADMIN_ADJUST','EXCHANGE_USE','SYSTEM_BONUS'),
+    primary key (id)
+) engine=InnoDB;
+
+create table stat_kpi_aggregate (
+    activity_earn_points float(53) not null,
+    admin_adjust_points float(53) not null,
+    completed_activities integer not null,
+    system_bonus_points float(53) not null,
+    id bigint not null,
+    rebuild_time datetime(6),
+    total_service_hours bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table token (
+    create_time datetime(6) not null,
+    expire_time datetime(6) not null,
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    token varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table user (
+    deleted bit not null,
+    create_time datetime(6) not null,
+    delete_time datetime(6),
+    id bigint not null auto_increment,
+    phone varchar(20),
+    username varchar(20) not null,
+    password varchar(255) not null,
+    role enum ('ADMIN','USER','VOLUNTEER') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table volunteer (
+    deleted bit not null,
+    points float(53) not null,
+    create_time datetime(6) not null,
+    delete_time datetime(6),
+    id bigint not null auto_increment,
+    review_time datetime(6),
+    user_id bigint not null,
+    name varchar(20) not null,
+    phone varchar(20),
+    apply_reason varchar(200),
+    review_note varchar(200),
+    status enum ('CERTIFIED','REJECTED','REVIEWING','SUSPENDED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_activity_start_time on activity (start_time);
+create index idx_activity_status_start_time on activity (status, start_time);
+create index idx_activity_type_start_time on activity (type, start_time);
+create index idx_signup_record_signup_time on signup_record (signup_time);
+create index idx_stat_daily_rollup_date on stat_daily_rollup (stat_date, activity_type, change_type);
+alter table token add constraint uk_token_token unique (token);
+alter table user add constraint uk_user_username unique (username);
+alter table volunteer add constraint uk_volunteer_name_phone unique (name, phone);
+alter table volunteer add constraint uk_volunteer_user_id unique (user_id);
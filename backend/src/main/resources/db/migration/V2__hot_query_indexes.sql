@@ -0,0 +1,19 @@
+-- 按 repository 包里的查询方法补齐的索引
+-- signup_record: 按志愿者 / 按活动查报名记录并按报名时间排序，(volunteer_id, activity_id) 唯一
+-- point_change_record: 按志愿者、按变动类型查流水并按时间排序，看板按时间区间汇总
+-- exchange_record: 按志愿者查兑换记录并按下单时间排序，管理端按状态筛选
+-- token: 按用户删除、按过期时间清理
+-- volunteer: 按用户查未删除的志愿者，管理端按状态筛选未删除的志愿者
+
+create index idx_exchange_record_volunteer_order_time on exchange_record (volunteer_id, order_time);
+create index idx_exchange_record_status on exchange_record (status);
+create index idx_point_change_record_volunteer_time on point_change_record (volunteer_id, change_time);
+create index idx_point_change_record_type_time on point_change_record (change_type, change_time);
+create index idx_point_change_record_change_time on point_change_record (change_time);
+create index idx_signup_record_volunteer_signup_time on signup_record (volunteer_id, signup_time);
+create index idx_signup_record_activity_signup_time on signup_record (activity_id, signup_time);
+alter table signup_record add constraint uk_signup_record_volunteer_activity unique (volunteer_id, activity_id);
+create index idx_token_user_id on token (user_id);
+create index idx_token_expire_time on token (expire_time);
+create index idx_volunteer_user_deleted on volunteer (user_id, deleted);
+create index idx_volunteer_deleted_status on volunteer (deleted, status);
@@ -0,0 +1,4 @@
+-- 管理端按状态筛选兑换记录时按 (order_time, id) 游标分页，(status) 扩成 (status, order_time)
+
+create index idx_exchange_record_status_order_time on exchange_record (status, order_time);
+drop index idx_exchange_record_status on exchange_record;
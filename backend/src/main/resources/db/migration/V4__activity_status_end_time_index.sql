@@ -0,0 +1,3 @@
+-- 活动状态引擎按 (status, end_time) 批量把已结束的活动改为已完成，重启时也按它加载待处理的结束时刻
+
+create index idx_activity_status_end_time on activity (status, end_time);
@@ -0,0 +1,3 @@
+-- 活动抢报模式开关，见 FlashSignupService
+
+alter table activity add column flash_mode bit not null default 0;
@@ -0,0 +1,7 @@
+-- 活动候补队列，见 ActivityWaitlist
+
+alter table signup_record modify column status enum ('CANCELLED','CONFIRMED','PARTICIPATED','REJECTED','REVIEWING','UNARRIVED','WAITLISTED') not null;
+alter table signup_record add column waitlist_position bigint;
+create index idx_signup_record_activity_status_waitlist on signup_record (activity_id, status, waitlist_position);
+
+alter table activity add column waitlist_seq bigint not null default 0;
@@ -0,0 +1,6 @@
+-- 活动抽签模式，见 LotteryDrawService
+
+alter table activity add column lottery_mode bit not null default 0;
+alter table activity add column lottery_draw_time datetime(6);
+alter table activity add column lottery_seed bigint;
+create index idx_activity_lottery_draw_time on activity (lottery_draw_time);
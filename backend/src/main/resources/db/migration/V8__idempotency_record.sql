@@ -0,0 +1,18 @@
+-- 写接口的 Idempotency-Key 记录，见 IdempotencyStore
+
+create table idempotency_record (
+    create_time datetime(6) not null,
+    expire_time datetime(6) not null,
+    id bigint not null auto_increment,
+    result_id bigint,
+    user_id bigint not null,
+    waitlist_position bigint,
+    endpoint varchar(32) not null,
+    idempotency_key varchar(64) not null,
+    request_hash varchar(64) not null,
+    message varchar(200),
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_idempotency_record_expire_time on idempotency_record (expire_time);
+alter table idempotency_record add constraint uk_idempotency_record_user_endpoint_key unique (user_id, endpoint, idempotency_key);
@@ -0,0 +1,100 @@
+package com.volunteer.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.volunteer.backend.dto.request.SignupRequest;
+import com.volunteer.backend.entity.Activity;
+import com.volunteer.backend.entity.Volunteer;
+import com.volunteer.backend.enums.ActivityStatus;
+import com.volunteer.backend.enums.ActivityType;
+import com.volunteer.backend.repository.ActivityRepository;
+import com.volunteer.backend.repository.VolunteerRepository;
+
+/**
+ * 1000 个志愿者同时报名 50 人的活动：名额由 reserveSeat 的条件 UPDATE 分配，不能超报，也不能丢失更新
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class ActivitySeatStressTest {
+    private static final int VOLUNTEERS = 1000;
+    private static final int SEATS = 50;
+    private static final int THREADS = 32;
+    private static final long FIRST_USER_ID = 1000L;
+
+    @Autowired
+    private ActivityService activityService;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private VolunteerRepository volunteerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentSignupsNeverOverbook() throws InterruptedException {
+        List<Volunteer> volunteers = new ArrayList<>();
+        for (int i = 0; i < VOLUNTEERS; i++) {
+            Volunteer v = new Volunteer("志愿者" + i, "1380000" + String.format("%04d", i), FIRST_USER_ID + i);
+            v.approve("测试");
+            volunteers.add(v);
+        }
+        volunteerRepository.saveAll(volunteers);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Activity activity = new Activity("压力测试", ActivityType.COMMUNITY_SERVICE, "测试地点", start, start.plusHours(4),
+                1.0, SEATS);
+        activity.setStatus(ActivityStatus.RECRUITING);
+        Long activityId = activityRepository.save(activity).getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < VOLUNTEERS; i++) {
+            long userId = FIRST_USER_ID + i;
+            pool.execute(() -> {
+                try {
+                    ready.await();
+                    SignupRequest request = new SignupRequest();
+                    request.setActivityId(activityId);
+                    activityService.signupActivity(userId, request);
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        ready.countDown();
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.MINUTES);
+
+        // 报满之后的报名进入候补队列，所以每个请求都应该成功，但只有 SEATS 个占到名额
+        assertEquals(0, failures.get());
+        assertEquals(SEATS, count("select cur_participants from activity where id = ?", activityId));
+        assertEquals(SEATS, count("select count(*) from signup_record where activity_id = ? and status = 'REVIEWING'",
+                activityId));
+        assertEquals(VOLUNTEERS - SEATS, count(
+                "select count(distinct waitlist_position) from signup_record where activity_id = ? and status = 'WAITLISTED'",
+                activityId));
+    }
+
+    private int count(String sql, Long activityId) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, activityId);
+    }
+}
@@ -0,0 +1,113 @@
+package com.volunteer.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.volunteer.backend.dto.request.SignupRequest;
+import com.volunteer.backend.dto.response.AdminActivitySettleResponse;
+import com.volunteer.backend.entity.Activity;
+import com.volunteer.backend.entity.Volunteer;
+import com.volunteer.backend.enums.ActivityStatus;
+import com.volunteer.backend.enums.ActivityType;
+import com.volunteer.backend.repository.ActivityRepository;
+import com.volunteer.backend.repository.VolunteerRepository;
+
+/**
+ * 500 人活动的结算：除了三组批量语句，其余语句都只执行一次，JDBC 调用次数不随人数增长
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class ActivitySettlementBatchTest {
+    private static final Logger logger = LoggerFactory.getLogger(ActivitySettlementBatchTest.class);
+
+    private static final int PARTICIPANTS = 500;
+    private static final long FIRST_USER_ID = 5000L;
+
+    @Autowired
+    private ActivityService activityService;
+
+    @Autowired
+    private ActivitySettlementService activitySettlementService;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private VolunteerRepository volunteerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void settlesFiveHundredParticipantsWithConstantStatements() {
+        List<Volunteer> volunteers = new ArrayList<>();
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            Volunteer v = new Volunteer("结算" + i, "1390000" + String.format("%04d", i), FIRST_USER_ID + i);
+            v.approve("测试");
+            volunteers.add(v);
+        }
+        volunteerRepository.saveAll(volunteers);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        Activity activity = new Activity("结算测试", ActivityType.COMMUNITY_SERVICE, "测试地点", start, start.plusHours(4),
+                2.0, PARTICIPANTS);
+        activity.setStatus(ActivityStatus.RECRUITING);
+        Long activityId = activityRepository.save(activity).getId();
+
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            SignupRequest request = new SignupRequest();
+            request.setActivityId(activityId);
+            activityService.signupActivity(FIRST_USER_ID + i, request);
+        }
+        jdbcTemplate.update("update signup_record set status = 'CONFIRMED' where activity_id = ?", activityId);
+        jdbcTemplate.update("update activity set status = 'COMPLETED' where id = ?", activityId);
+
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        long begin = System.nanoTime();
+        AdminActivitySettleResponse response = activitySettlementService.settleActivity(activityId, null);
+        long millis = (System.nanoTime() - begin) / 1_000_000;
+        List<Map<String, Object>> statistics = jdbcTemplate.queryForList(
+                "select sql_statement, execution_count from information_schema.query_statistics");
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+
+        assertEquals(PARTICIPANTS, response.getParticipatedCount());
+        assertEquals(PARTICIPANTS * 8.0, response.getTotalPoints());
+        assertEquals(PARTICIPANTS, count("select count(*) from point_change_record where change_type = 'ACTIVITY_EARN' "
+                + "and related_record_id in (select id from signup_record where activity_id = ?)", activityId));
+        assertEquals(PARTICIPANTS, count("select count(*) from volunteer where user_id >= ? and points = 8",
+                FIRST_USER_ID));
+
+        // H2 按行统计批量语句的执行次数：只有报名、流水、余额三组批量语句执行 PARTICIPANTS 次
+        int batched = 0;
+        for (Map<String, Object> row : statistics) {
+            String sql = (String) row.get("sql_statement");
+            int executions = ((Number) row.get("execution_count")).intValue();
+            if (!sql.matches("(?is)\\s*(select|insert|update|delete)\\b.*") || sql.contains("query_statistics")) {
+                continue;
+            }
+            logger.info("{} 次: {}", executions, sql);
+            if (executions > 1) {
+                assertEquals(PARTICIPANTS, executions, sql);
+                batched++;
+            }
+        }
+        assertEquals(3, batched);
+        logger.info("结算 {} 人用时 {} ms", PARTICIPANTS, millis);
+    }
+
+    private int count(String sql, Long id) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, id);
+    }
+}
@@ -0,0 +1,145 @@
+package com.volunteer.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.volunteer.backend.dto.request.SignupRequest;
+import com.volunteer.backend.entity.Activity;
+import com.volunteer.backend.entity.Volunteer;
+import com.volunteer.backend.enums.ActivityStatus;
+import com.volunteer.backend.enums.ActivityType;
+import com.volunteer.backend.repository.ActivityRepository;
+import com.volunteer.backend.repository.VolunteerRepository;
+
+/**
+ * 报满的活动里占位的志愿者同时取消：每个空出的名额递补一位不同的候补，人数和占位记录始终一致
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class ActivityWaitlistStressTest {
+    private static final int SEATS = 30;
+    private static final int WAITLISTED = 60;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private ActivityService activityService;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private VolunteerRepository volunteerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentCancelsPromoteEachWaitlistedOnce() throws InterruptedException {
+        long firstUserId = 8000L;
+        Long activityId = fullActivity(firstUserId, "1370000");
+
+        List<Long> cancels = new ArrayList<>();
+        for (int i = 0; i < SEATS; i++) {
+            cancels.add(firstUserId + i);
+        }
+
+        // 每个取消递补一位，排在最前面的 SEATS 位候补按顺序占满名额
+        assertEquals(0, cancelConcurrently(activityId, cancels));
+        assertSeats(activityId, SEATS, WAITLISTED - SEATS);
+        assertEquals(SEATS, count("select count(*) from signup_record s join volunteer v on v.id = s.volunteer_id "
+                + "where s.activity_id = ? and s.status = 'REVIEWING' and v.user_id < " + (firstUserId + 2 * SEATS),
+                activityId));
+    }
+
+    @Test
+    void duplicateCancelsReleaseOneSeat() throws InterruptedException {
+        long firstUserId = 9000L;
+        Long activityId = fullActivity(firstUserId, "1360000");
+
+        // 前 10 位占位的志愿者各自连点 4 次取消，只有第一次成功
+        List<Long> cancels = new ArrayList<>();
+        for (int repeat = 0; repeat < 4; repeat++) {
+            for (int i = 0; i < 10; i++) {
+                cancels.add(firstUserId + i);
+            }
+        }
+
+        assertEquals(30, cancelConcurrently(activityId, cancels));
+        assertSeats(activityId, SEATS, WAITLISTED - 10);
+    }
+
+    // 建一个 SEATS 人报满、另有 WAITLISTED 人候补的活动
+    private Long fullActivity(long firstUserId, String phonePrefix) {
+        List<Volunteer> volunteers = new ArrayList<>();
+        for (int i = 0; i < SEATS + WAITLISTED; i++) {
+            Volunteer v = new Volunteer("候补" + i, phonePrefix + String.format("%04d", i), firstUserId + i);
+            v.approve("测试");
+            volunteers.add(v);
+        }
+        volunteerRepository.saveAll(volunteers);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Activity activity = new Activity("候补测试", ActivityType.COMMUNITY_SERVICE, "测试地点", start, start.plusHours(4),
+                1.0, SEATS);
+        activity.setStatus(ActivityStatus.RECRUITING);
+        Long activityId = activityRepository.save(activity).getId();
+
+        for (int i = 0; i < SEATS + WAITLISTED; i++) {
+            activityService.signupActivity(firstUserId + i, request(activityId));
+        }
+        return activityId;
+    }
+
+    // 同时发起取消，返回失败的次数
+    private int cancelConcurrently(Long activityId, List<Long> userIds) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        for (Long userId : userIds) {
+            pool.execute(() -> {
+                try {
+                    ready.await();
+                    activityService.cancelSignupActivity(userId, request(activityId));
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        ready.countDown();
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.MINUTES);
+        return failures.get();
+    }
+
+    private void assertSeats(Long activityId, int holders, int waitlisted) {
+        assertEquals(holders, count("select cur_participants from activity where id = ?", activityId));
+        assertEquals(holders, count("select count(*) from signup_record where activity_id = ? and status = 'REVIEWING'",
+                activityId));
+        assertEquals(waitlisted, count(
+                "select count(*) from signup_record where activity_id = ? and status = 'WAITLISTED'", activityId));
+    }
+
+    private static SignupRequest request(Long activityId) {
+        SignupRequest request = new SignupRequest();
+        request.setActivityId(activityId);
+        return request;
+    }
+
+    private int count(String sql, Long activityId) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, activityId);
+    }
+}